@@ -0,0 +1,66 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.Path;
+import org.genetic.utils.entities.DistanceMatrix;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded map from tour hashes to costs, a direct mapped table keeping the latest tour of every bucket. Workers share
+ * it without locking: each key is stored xor-ed with its cost bits, so a bucket torn by two concurrent writes reads as
+ * a miss rather than as a wrong cost.
+ */
+final class CostCache {
+    private final TourHash hasher;
+    private final long[] keys;
+    private final long[] costs;
+    private final int bits;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Rounds the capacity up to a power of two.
+     */
+    CostCache(int capacity, TourHash hasher) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.hasher = hasher;
+        this.keys = new long[size];
+        this.costs = new long[size];
+        this.bits = Integer.numberOfTrailingZeros(size);
+    }
+
+    /**
+     * Sets the cost and the hash of a dirty tour, from the cache when the same tour was evaluated before. Hashing
+     * takes a pass over the tour like evaluating it, but reads a table of n keys instead of the distance matrix.
+     * Returns true only when the cost had to be computed.
+     */
+    boolean evaluate(Path path, DistanceMatrix graph) {
+        if (!path.isDirty()) {
+            return false;
+        }
+        var hash = hasher.hash(path.getNodes());
+        int bucket = TourHash.bucket(hash, bits);
+        var costBits = costs[bucket];
+        lookups.increment();
+        boolean computed = (keys[bucket] ^ costBits) != hash;
+        if (computed) {
+            graph.setPathCost(path);
+            costBits = Double.doubleToRawLongBits(path.getCost());
+            costs[bucket] = costBits;
+            keys[bucket] = hash ^ costBits;
+        } else {
+            hits.increment();
+            path.setCost(Double.longBitsToDouble(costBits));
+        }
+        path.setHash(hash);
+        return computed;
+    }
+
+    long getLookups() {
+        return lookups.sum();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+}
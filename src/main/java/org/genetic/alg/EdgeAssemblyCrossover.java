@@ -0,0 +1,440 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.Path;
+import org.genetic.utils.RandomGenerator;
+import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.NeighbourLists;
+
+/**
+ * Edge assembly crossover with local E-sets. The edges the parents do not share are split into AB-cycles alternating
+ * between the first and the second parent. Every trial picks a centre cycle, adds a random part of the cycles that
+ * touch it and applies them to the first parent, which leaves a set of subtours, then joins them back with the cheapest
+ * 2-opt style exchange found along the neighbour lists. The best of the trials is returned. With
+ * -Dgenetic.eaxLocal=false every E-set is a single cycle, the EAX-1AB variant.
+ */
+final class EdgeAssemblyCrossover {
+    private static final int MAX_TRIALS = 10;
+    private static final boolean LOCAL_SETS = Boolean.parseBoolean(System.getProperty("genetic.eaxLocal", "true"));
+
+    private EdgeAssemblyCrossover() {
+    }
+
+    /**
+     * Writes the child into the given path, which must not be one of the parents. Subtours are joined along the given
+     * neighbour lists of the instance.
+     */
+    static void crossover(Path parent1, Path parent2, DistanceMatrix graph, NeighbourLists neighbours, Path child) {
+        int n = graph.size();
+        var scratch = Scratch.get(n);
+        TourLinks.link(parent1.getNodes(), scratch.nextA, scratch.prevA);
+        TourLinks.link(parent2.getNodes(), scratch.nextB, scratch.prevB);
+        int cycleCount = scratch.decompose();
+        if (cycleCount == 0) {
+            child.copyFrom(parent1);
+            return;
+        }
+
+        var order = scratch.order;
+        for (int i = 0; i < cycleCount; i++) {
+            order[i] = i;
+        }
+        int trials = Math.min(MAX_TRIALS, cycleCount);
+        double bestDelta = Double.POSITIVE_INFINITY;
+        for (int trial = 0; trial < trials; trial++) {
+            int pick = trial + RandomGenerator.getRandomInt(cycleCount - trial);
+            int cycle = order[pick];
+            order[pick] = order[trial];
+            order[trial] = cycle;
+
+            System.arraycopy(scratch.nextA, 0, scratch.link0, 0, n);
+            System.arraycopy(scratch.prevA, 0, scratch.link1, 0, n);
+            int setSize = scratch.collectSet(cycle, cycleCount);
+            double delta = 0;
+            for (int i = 0; i < setSize; i++) {
+                delta += scratch.applyCycle(scratch.eset[i], graph);
+            }
+            delta += scratch.mergeSubtours(graph, neighbours);
+            if (delta < bestDelta) {
+                bestDelta = delta;
+                scratch.keepBest();
+            }
+        }
+
+        TourLinks.toNodes(scratch.best0, scratch.best1, child.getNodes());
+        child.setCost(parent1.getCost());
+        GeneticOperatorHelper.applyDelta(child, bestDelta, graph);
+    }
+
+    /**
+     * Per-thread buffers indexed by node. Cycles are stored back to back in cycleNodes, cycle c spans
+     * cycleStart[c] until cycleStart[c + 1] and its edges alternate starting with one of the first parent.
+     */
+    private static final class Scratch {
+        private static final ThreadLocal<Scratch> local = new ThreadLocal<>();
+        private final int size;
+        private final int[] nextA;
+        private final int[] prevA;
+        private final int[] nextB;
+        private final int[] prevB;
+        private final int[] remainingA;
+        private final int[] remainingB;
+        private final int[] trail;
+        private final int[] firstVisit;
+        private final int[] secondVisit;
+        private final int[] cycleNodes;
+        private final int[] cycleStart;
+        private final int[] order;
+        private final int[] eset;
+        private final int[] mark;
+        private int stamp;
+        private int[] link0;
+        private int[] link1;
+        private int[] best0;
+        private int[] best1;
+        private final int[] label;
+        private final int[] subtourStart;
+        private final int[] subtourSize;
+        private final Join join = new Join();
+        private int subtourTotal;
+        private int subtourCount;
+
+        private Scratch(int size) {
+            this.size = size;
+            this.nextA = new int[size];
+            this.prevA = new int[size];
+            this.nextB = new int[size];
+            this.prevB = new int[size];
+            this.remainingA = new int[2 * size];
+            this.remainingB = new int[2 * size];
+            this.trail = new int[2 * size + 1];
+            this.firstVisit = new int[size];
+            this.secondVisit = new int[size];
+            this.cycleNodes = new int[2 * size];
+            this.cycleStart = new int[size + 1];
+            this.order = new int[size];
+            this.eset = new int[size];
+            this.mark = new int[size];
+            this.link0 = new int[size];
+            this.link1 = new int[size];
+            this.best0 = new int[size];
+            this.best1 = new int[size];
+            this.label = new int[size];
+            this.subtourStart = new int[size];
+            this.subtourSize = new int[size];
+        }
+
+        static Scratch get(int size) {
+            var scratch = local.get();
+            if (scratch == null || scratch.size != size) {
+                scratch = new Scratch(size);
+                local.set(scratch);
+            }
+            return scratch;
+        }
+
+        /**
+         * Splits the edges found in only one parent into AB-cycles by a random alternating walk. Whenever the walk
+         * returns to a node it left by the other parent's edge, the closed part is cut off as a cycle.
+         */
+        int decompose() {
+            int remainingNodes = 0;
+            for (int v = 0; v < size; v++) {
+                remainingA[2 * v] = isEdgeOfB(v, nextA[v]) ? -1 : nextA[v];
+                remainingA[2 * v + 1] = isEdgeOfB(v, prevA[v]) ? -1 : prevA[v];
+                remainingB[2 * v] = isEdgeOfA(v, nextB[v]) ? -1 : nextB[v];
+                remainingB[2 * v + 1] = isEdgeOfA(v, prevB[v]) ? -1 : prevB[v];
+                firstVisit[v] = -1;
+                secondVisit[v] = -1;
+                remainingNodes += remainingA[2 * v] != -1 || remainingA[2 * v + 1] != -1 ? 1 : 0;
+            }
+            int cycleCount = 0;
+            cycleStart[0] = 0;
+            if (remainingNodes == 0) {
+                return 0;
+            }
+
+            int offset = RandomGenerator.getRandomInt(size);
+            for (int i = 0; i < size; i++) {
+                int start = (offset + i) % size;
+                int length = 0;
+                if (hasEdge(remainingA, start)) {
+                    trail[length++] = start;
+                    firstVisit[start] = 0;
+                }
+                while (length > 0) {
+                    int last = length - 1;
+                    int node = trail[last];
+                    var edges = last % 2 == 0 ? remainingA : remainingB;
+                    if (!hasEdge(edges, node)) {
+                        // only the start node can run out, once all of its edges are in cycles
+                        firstVisit[node] = -1;
+                        break;
+                    }
+                    int next = takeEdge(edges, node);
+                    int position = length;
+                    trail[length++] = next;
+
+                    int closing = firstVisit[next] != -1 && (position - firstVisit[next]) % 2 == 0 ? firstVisit[next]
+                            : secondVisit[next] != -1 && (position - secondVisit[next]) % 2 == 0 ? secondVisit[next] : -1;
+                    if (closing == -1) {
+                        if (firstVisit[next] == -1) {
+                            firstVisit[next] = position;
+                        } else {
+                            secondVisit[next] = position;
+                        }
+                        continue;
+                    }
+
+                    int write = cycleStart[cycleCount];
+                    // Rotate by one when the cycle starts with an edge of the second parent
+                    int from = closing % 2 == 0 ? closing : closing + 1;
+                    for (int j = from; j < position; j++) {
+                        cycleNodes[write++] = trail[j];
+                    }
+                    if (from != closing) {
+                        cycleNodes[write++] = trail[closing];
+                    }
+                    cycleStart[++cycleCount] = write;
+
+                    for (int j = closing + 1; j < position; j++) {
+                        forgetVisit(trail[j], j);
+                    }
+                    length = closing + 1;
+                }
+            }
+            return cycleCount;
+        }
+
+        /**
+         * Local E-set: the centre cycle and, each with probability one half, the other cycles sharing a node with it.
+         * Returns the number of cycles.
+         */
+        int collectSet(int centre, int cycleCount) {
+            eset[0] = centre;
+            if (!LOCAL_SETS) {
+                return 1;
+            }
+            stamp++;
+            for (int i = cycleStart[centre]; i < cycleStart[centre + 1]; i++) {
+                mark[cycleNodes[i]] = stamp;
+            }
+            int count = 1;
+            for (int cycle = 0; cycle < cycleCount; cycle++) {
+                if (cycle == centre) {
+                    continue;
+                }
+                for (int i = cycleStart[cycle]; i < cycleStart[cycle + 1]; i++) {
+                    if (mark[cycleNodes[i]] == stamp) {
+                        if (RandomGenerator.getRandomInt(2) == 0) {
+                            eset[count++] = cycle;
+                        }
+                        break;
+                    }
+                }
+            }
+            return count;
+        }
+
+        double applyCycle(int cycle, DistanceMatrix graph) {
+            int from = cycleStart[cycle];
+            int to = cycleStart[cycle + 1];
+            int length = to - from;
+            double delta = 0;
+            for (int i = 0; i < length; i += 2) {
+                int x = cycleNodes[from + i];
+                int y = cycleNodes[from + (i + 1) % length];
+                TourLinks.remove(link0, link1, x, y);
+                delta -= graph.getDistance(x, y);
+            }
+            for (int i = 1; i < length; i += 2) {
+                int x = cycleNodes[from + i];
+                int y = cycleNodes[from + (i + 1) % length];
+                TourLinks.add(link0, link1, x, y);
+                delta += graph.getDistance(x, y);
+            }
+            return delta;
+        }
+
+        /**
+         * Repeatedly joins the smallest subtour to another one, removing an edge from each and reconnecting the
+         * ends. Exchanges are searched from the neighbour lists first and over all nodes only when every neighbour
+         * lies in the same subtour.
+         */
+        double mergeSubtours(DistanceMatrix graph, NeighbourLists neighbours) {
+            labelSubtours();
+            double delta = 0;
+            while (subtourCount > 1) {
+                int smallest = -1;
+                for (int s = 0; s < subtourTotal; s++) {
+                    if (subtourStart[s] >= 0 && (smallest == -1 || subtourSize[s] < subtourSize[smallest])) {
+                        smallest = s;
+                    }
+                }
+                var move = findJoin(graph, neighbours, smallest, false);
+                if (move.delta == Double.POSITIVE_INFINITY) {
+                    move = findJoin(graph, neighbours, smallest, true);
+                }
+
+                int target = label[move.v];
+                relabel(smallest, target);
+                TourLinks.remove(link0, link1, move.u, move.uNext);
+                TourLinks.remove(link0, link1, move.v, move.vNext);
+                if (move.crossed) {
+                    TourLinks.add(link0, link1, move.u, move.vNext);
+                    TourLinks.add(link0, link1, move.uNext, move.v);
+                } else {
+                    TourLinks.add(link0, link1, move.u, move.v);
+                    TourLinks.add(link0, link1, move.uNext, move.vNext);
+                }
+                delta += move.delta;
+            }
+            return delta;
+        }
+
+        private Join findJoin(DistanceMatrix graph, NeighbourLists neighbours, int subtour, boolean exhaustive) {
+            var best = join;
+            best.delta = Double.POSITIVE_INFINITY;
+            int start = subtourStart[subtour];
+            int prev = link1[start];
+            int u = start;
+            do {
+                int count = exhaustive ? size : neighbours.k();
+                for (int i = 0; i < count; i++) {
+                    int v = exhaustive ? i : neighbours.get(u, i);
+                    if (label[v] == subtour) {
+                        continue;
+                    }
+                    best.consider(graph, u, link0[u], v, link0[v]);
+                    best.consider(graph, u, link0[u], v, link1[v]);
+                    best.consider(graph, u, link1[u], v, link0[v]);
+                    best.consider(graph, u, link1[u], v, link1[v]);
+                }
+                int next = link0[u] == prev ? link1[u] : link0[u];
+                prev = u;
+                u = next;
+            } while (u != start);
+            return best;
+        }
+
+        private void labelSubtours() {
+            for (int v = 0; v < size; v++) {
+                label[v] = -1;
+            }
+            subtourCount = 0;
+            for (int v = 0; v < size; v++) {
+                if (label[v] != -1) {
+                    continue;
+                }
+                int prev = link1[v];
+                int curr = v;
+                int count = 0;
+                do {
+                    label[curr] = subtourCount;
+                    count++;
+                    int next = link0[curr] == prev ? link1[curr] : link0[curr];
+                    prev = curr;
+                    curr = next;
+                } while (curr != v);
+                subtourStart[subtourCount] = v;
+                subtourSize[subtourCount++] = count;
+            }
+            subtourTotal = subtourCount;
+        }
+
+        private void relabel(int from, int to) {
+            int start = subtourStart[from];
+            int prev = link1[start];
+            int curr = start;
+            do {
+                label[curr] = to;
+                int next = link0[curr] == prev ? link1[curr] : link0[curr];
+                prev = curr;
+                curr = next;
+            } while (curr != start);
+            subtourSize[to] += subtourSize[from];
+            subtourStart[from] = -1;
+            subtourCount--;
+        }
+
+        void keepBest() {
+            var tmp0 = best0;
+            var tmp1 = best1;
+            best0 = link0;
+            best1 = link1;
+            link0 = tmp0;
+            link1 = tmp1;
+        }
+
+        private boolean isEdgeOfA(int x, int y) {
+            return nextA[x] == y || prevA[x] == y;
+        }
+
+        private boolean isEdgeOfB(int x, int y) {
+            return nextB[x] == y || prevB[x] == y;
+        }
+
+        private static boolean hasEdge(int[] edges, int node) {
+            return edges[2 * node] != -1 || edges[2 * node + 1] != -1;
+        }
+
+        /**
+         * Removes a random remaining edge of the node from both of its ends and returns the other end.
+         */
+        private static int takeEdge(int[] edges, int node) {
+            int slot = 2 * node;
+            if (edges[slot] == -1 || (edges[slot + 1] != -1 && RandomGenerator.getRandomInt(2) == 1)) {
+                slot++;
+            }
+            int other = edges[slot];
+            edges[slot] = -1;
+            if (edges[2 * other] == node) {
+                edges[2 * other] = -1;
+            } else {
+                edges[2 * other + 1] = -1;
+            }
+            return other;
+        }
+
+        private void forgetVisit(int node, int position) {
+            if (secondVisit[node] == position) {
+                secondVisit[node] = -1;
+            } else if (firstVisit[node] == position) {
+                firstVisit[node] = secondVisit[node];
+                secondVisit[node] = -1;
+            }
+        }
+    }
+
+    /**
+     * Cheapest exchange joining two subtours, removing (u, uNext) and (v, vNext).
+     */
+    private static final class Join {
+        private int u;
+        private int uNext;
+        private int v;
+        private int vNext;
+        private boolean crossed;
+        private double delta = Double.POSITIVE_INFINITY;
+
+        void consider(DistanceMatrix graph, int u, int uNext, int v, int vNext) {
+            double removed = graph.getDistance(u, uNext) + graph.getDistance(v, vNext);
+            double straight = graph.getDistance(u, v) + graph.getDistance(uNext, vNext) - removed;
+            double crossing = graph.getDistance(u, vNext) + graph.getDistance(uNext, v) - removed;
+            if (straight < delta) {
+                set(u, uNext, v, vNext, false, straight);
+            }
+            if (crossing < delta) {
+                set(u, uNext, v, vNext, true, crossing);
+            }
+        }
+
+        private void set(int u, int uNext, int v, int vNext, boolean crossed, double delta) {
+            this.u = u;
+            this.uNext = uNext;
+            this.v = v;
+            this.vNext = vNext;
+            this.crossed = crossed;
+            this.delta = delta;
+        }
+    }
+}
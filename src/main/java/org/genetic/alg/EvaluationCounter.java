@@ -0,0 +1,75 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.StopReason;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe fitness evaluation counter, stops accepting evaluations as soon as the limit is reached so the
+ * final count is the same no matter how many workers report to it. It also enforces the wall clock budget of a run:
+ * the deadline is sampled with System.nanoTime once every 64 recorded evaluations, so breeding workers notice it
+ * within a few children without paying for a clock read on every one.
+ */
+class EvaluationCounter {
+    private static final int CLOCK_SAMPLING = 64;
+
+    private final AtomicLong count = new AtomicLong();
+    private final long limit;
+    private final long deadline;
+    private final boolean timed;
+    private volatile boolean expired;
+
+    EvaluationCounter(long limit) {
+        this(limit, 0);
+    }
+
+    /**
+     * @param timeLimitMillis wall clock budget counted from now, 0 means no budget
+     */
+    EvaluationCounter(long limit, long timeLimitMillis) {
+        this.limit = limit;
+        this.timed = timeLimitMillis > 0;
+        this.deadline = timed ? System.nanoTime() + timeLimitMillis * 1_000_000 : 0;
+    }
+
+    /**
+     * Records the given number of evaluations and returns false once the limit has been reached or the time budget
+     * is spent.
+     */
+    boolean record(int evaluations) {
+        while (true) {
+            long curr = count.get();
+            if (curr >= limit || expired) {
+                return false;
+            }
+            long next = curr + evaluations;
+            if (count.compareAndSet(curr, next)) {
+                if (timed && curr / CLOCK_SAMPLING != next / CLOCK_SAMPLING && isExpired()) {
+                    return false;
+                }
+                return next < limit;
+            }
+        }
+    }
+
+    /**
+     * Reads the clock, meant to be called once per generation on top of the sampling done while recording.
+     */
+    boolean isExpired() {
+        if (!expired && timed && System.nanoTime() - deadline >= 0) {
+            expired = true;
+        }
+        return expired;
+    }
+
+    /**
+     * Reason behind a false returned by {@link #record}.
+     */
+    StopReason getStopReason() {
+        return expired ? StopReason.TimeLimit : StopReason.EvaluationLimit;
+    }
+
+    long getCount() {
+        return count.get();
+    }
+}
@@ -1,22 +1,29 @@
 package org.genetic.alg;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.genetic.alg.entities.*;
 import org.genetic.utils.RandomGenerator;
 import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.NeighbourLists;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 @Setter
 @Getter
 public class GeneticAlgorithm {
+    private static final int DUPLICATE_ATTEMPTS = 3;
+
     private InitializationType initType;
     private MutationType mutType;
     private CrossoverType crossoverType;
@@ -29,6 +36,32 @@ public class GeneticAlgorithm {
     private int populationSize;
     private int eliteSize;
     private int tournamentSize;
+    private int parallelism;
+    private ExecutorService executor;
+    private float localSearchProbability;
+    private int localSearchBudget;
+    private int neighbourCount;
+    private long timeLimitMillis;
+    private int stagnationGenerations;
+    private long stagnationEvaluations;
+    private double targetCost;
+    private double optimalityGap;
+    private int costCacheSize;
+    private boolean rejectDuplicates;
+    /**
+     * Why the last call to execute returned.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile StopReason stopReason;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile LocalSearch localSearch;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile HeldKarpBound lowerBound;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile CrossoverCandidates crossoverCandidates;
 
     public GeneticAlgorithm(GeneticAlgorithm existing) {
         this.selType = existing.selType;
@@ -43,6 +76,18 @@ public class GeneticAlgorithm {
         this.tournamentSize = existing.tournamentSize;
         this.stopCond = existing.stopCond;
         this.fitnessLimit = existing.fitnessLimit;
+        this.parallelism = existing.parallelism;
+        this.executor = existing.executor;
+        this.localSearchProbability = existing.localSearchProbability;
+        this.localSearchBudget = existing.localSearchBudget;
+        this.neighbourCount = existing.neighbourCount;
+        this.timeLimitMillis = existing.timeLimitMillis;
+        this.stagnationGenerations = existing.stagnationGenerations;
+        this.stagnationEvaluations = existing.stagnationEvaluations;
+        this.targetCost = existing.targetCost;
+        this.optimalityGap = existing.optimalityGap;
+        this.costCacheSize = existing.costCacheSize;
+        this.rejectDuplicates = existing.rejectDuplicates;
     }
 
     public GeneticAlgorithm(Builder builder) {
@@ -58,10 +103,21 @@ public class GeneticAlgorithm {
         this.tournamentSize = builder.tournamentSize;
         this.stopCond = builder.stopCond;
         this.fitnessLimit = builder.fitnessLimit;
+        this.parallelism = builder.parallelism;
+        this.executor = builder.executor;
+        this.localSearchProbability = builder.localSearchProbability;
+        this.localSearchBudget = builder.localSearchBudget;
+        this.neighbourCount = builder.neighbourCount;
+        this.timeLimitMillis = builder.timeLimitMillis;
+        this.stagnationGenerations = builder.stagnationGenerations;
+        this.stagnationEvaluations = builder.stagnationEvaluations;
+        this.targetCost = builder.targetCost;
+        this.optimalityGap = builder.optimalityGap;
+        this.costCacheSize = builder.costCacheSize;
+        this.rejectDuplicates = builder.rejectDuplicates;
     }
 
     public Path execute(DistanceMatrix graph, String filename) {
-        int stopNumber = 0;
         int generation = 0;
         FileWriter fileWriter = null;
         if (filename != null) {
@@ -73,68 +129,35 @@ public class GeneticAlgorithm {
                 return null;
             }
         }
-        var population = GeneticOperatorHelper.initialize(this.initType, graph, populationSize);
-        Path bestPath = population.get(0);
-        var newPopulation = new ArrayList<Path>(populationSize);
-        if ( stopCond == StopCond.Fitness) {
-            stopNumber += populationSize;
-            if (stopNumber >= fitnessLimit) {
-                return bestPath;
+        var counter = createCounter();
+        var monitor = new StopMonitor(this, graph, counter);
+        var arena = createArena(graph);
+        var bestPath = new Path(arena.getIndex().getBest());
+        StopReason reason = counter.record(populationSize) ? null : counter.getStopReason();
+        while (reason == null) {
+            if (generation >= generationLimit) {
+                reason = StopReason.GenerationLimit;
+                break;
             }
-        }
-        while (generation < generationLimit ) {
             generation++;
-            population.sort(Comparator.comparing(Path::getCost));
-            var currBest = population.get(0);
-            if (bestPath == null || currBest.getCost() < bestPath.getCost()) {
-                bestPath = new Path(currBest.getNodes(), currBest.getCost());
+            var index = arena.getIndex();
+            if (index.getBestCost() < bestPath.getCost()) {
+                bestPath.copyFrom(index.getBest());
             }
             if (fileWriter != null) {
                 try {
-                    saveMetrics(stopNumber, population, fileWriter);
+                    saveMetrics(counter.getCount(), index, fileWriter);
                 } catch (IOException e) {
                     return null;
                 }
             }
 
-            //Transfer the best paths unchanged
-            for (int i = 0; i < eliteSize; i++) {
-                var currPath = population.get(i);
-                newPopulation.add(new Path(currPath.getNodes(), currPath.getCost()));
-            }
-
-            //Create the rest of new population
-            while (newPopulation.size() < populationSize) {
-                var path1 = GeneticOperatorHelper.select(selType, population, this.tournamentSize);
-                var path2 = GeneticOperatorHelper.select(selType, population, this.tournamentSize);
-                List<Path> children;
-                if (RandomGenerator.randomDouble() < crossoverProbability) {
-                    children = GeneticOperatorHelper.crossover(this.crossoverType, path1, path2, graph);
-                    if (stopCond == StopCond.Fitness) {
-                        stopNumber += children.size();
-                        if (stopNumber >= fitnessLimit) {
-                            return bestPath;
-                        }
-                    }
-                } else {
-                    children = List.of(path1);
-                }
-                for (var child : children) {
-                    if (RandomGenerator.randomDouble() < mutationProbability) {
-                        GeneticOperatorHelper.mutate(this.mutType, child, graph);
-                        if (stopCond == StopCond.Fitness) {
-                            stopNumber++;
-                            if (stopNumber >= fitnessLimit) {
-                                return bestPath;
-                            }
-                        }
-                    }
-                    newPopulation.add(child);
-                }
+            reason = monitor.check(generation, bestPath.getCost(), counter);
+            if (reason == null && !nextGeneration(arena, graph, counter)) {
+                reason = counter.getStopReason();
             }
-            population = newPopulation.subList(0, populationSize);
-            newPopulation = new ArrayList<>(populationSize);
         }
+        stopReason = reason;
         if (fileWriter != null) {
             try {
                 fileWriter.close();
@@ -145,16 +168,222 @@ public class GeneticAlgorithm {
         return bestPath;
     }
 
-    private void saveMetrics(int generationCounter, List<Path> population, FileWriter fileWriter) throws IOException {
+    /**
+     * The time budget starts when the counter is created, so it covers the initial population as well.
+     */
+    EvaluationCounter createCounter() {
+        return new EvaluationCounter(stopCond == StopCond.Fitness ? fitnessLimit : Long.MAX_VALUE, timeLimitMillis);
+    }
+
+    List<Path> initialize(DistanceMatrix graph) {
+        return GeneticOperatorHelper.initialize(this.initType, graph, populationSize);
+    }
+
+    PopulationArena createArena(DistanceMatrix graph) {
+        return new PopulationArena(initialize(graph), graph.size(), costCacheSize);
+    }
+
+    /**
+     * Writes the next generation into the spare buffer of the arena and makes it current, returns false and keeps the
+     * current generation when the evaluation limit was hit.
+     */
+    boolean nextGeneration(PopulationArena arena, DistanceMatrix graph, EvaluationCounter counter) {
+        var population = arena.getIndex();
+        var slots = arena.getNext();
+        //Transfer the best paths unchanged
+        var elites = population.elites(eliteSize);
+        for (int i = 0; i < elites.length; i++) {
+            slots.get(i).copyFrom(population.get(elites[i]));
+        }
+
+        //Create the rest of new population
+        if (!breed(arena, graph, counter, elites.length)) {
+            return false;
+        }
+        if (rejectDuplicates && !replaceDuplicates(arena, graph, counter)) {
+            return false;
+        }
+        arena.swap();
+        return true;
+    }
+
+    /**
+     * Fills the slots from the given one on with children, split into independent slices when running in parallel.
+     * Returns false when the evaluation limit was hit and the generation could not be completed.
+     */
+    private boolean breed(PopulationArena arena, DistanceMatrix graph, EvaluationCounter counter, int firstSlot) {
+        var slots = arena.getNext();
+        int offspringCount = slots.size() - firstSlot;
+        int workers = Math.min(parallelism, offspringCount);
+        var selection = arena.prepareSelection(this);
+        var improver = getLocalSearch(graph);
+        var candidates = getCrossoverCandidates(graph);
+        var hasher = arena.getHasher();
+        var cache = arena.getCostCache();
+        if (workers <= 1) {
+            var parents = selection.slice(0, firstSlot, slots.size());
+            return breedSlice(parents, improver, candidates, hasher, cache, graph, counter, slots, firstSlot,
+                    slots.size());
+        }
+
+        List<Callable<Boolean>> tasks = new ArrayList<>(workers);
+        int from = firstSlot;
+        for (int i = 0; i < workers; i++) {
+            int start = from;
+            int end = start + offspringCount / workers + (i < offspringCount % workers ? 1 : 0);
+            var stream = RandomGenerator.split();
+            var parents = selection.slice(i, start, end);
+            tasks.add(() -> {
+                RandomGenerator.bind(stream);
+                try {
+                    return breedSlice(parents, improver, candidates, hasher, cache, graph, counter, slots, start, end);
+                } finally {
+                    RandomGenerator.unbind();
+                }
+            });
+            from = end;
+        }
+        try {
+            var running = true;
+            for (var slice : getExecutor().invokeAll(tasks)) {
+                running &= slice.get();
+            }
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Offspring generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Offspring generation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Writes children into the slots from start up to end, a second child that does not fit is never built. Every new
+     * tour counts as a single evaluation however many operators touched it, once its cost is known: tours updated
+     * incrementally right away, tours rebuilt by crossover in one sweep over the slice once it is complete. The sweep
+     * goes through the cost cache when there is one, and a tour found in the cache is not counted.
+     */
+    private boolean breedSlice(SelectionEngine.Slice parents, LocalSearch improver, NeighbourLists candidates,
+                               TourHash hasher, CostCache cache, DistanceMatrix graph, EvaluationCounter counter,
+                               List<Path> slots, int start, int end) {
+        int slot = start;
+        while (slot < end) {
+            var path1 = parents.select();
+            var path2 = parents.select();
+            int offspring;
+            boolean crossed = RandomGenerator.randomDouble() < crossoverProbability;
+            if (crossed) {
+                var second = slot + 1 < end ? slots.get(slot + 1) : null;
+                offspring = GeneticOperatorHelper.crossover(this.crossoverType, path1, path2, graph, candidates,
+                        slots.get(slot), second);
+            } else {
+                slots.get(slot).copyFrom(path1);
+                offspring = 1;
+            }
+            for (int i = 0; i < offspring; i++) {
+                var child = slots.get(slot++);
+                boolean changed = crossed;
+                if (RandomGenerator.randomDouble() < mutationProbability) {
+                    GeneticOperatorHelper.mutate(this.mutType, child, graph, hasher);
+                    changed = true;
+                }
+                if (changed && !child.isDirty() && !counter.record(1)) {
+                    return false;
+                }
+                if (improver != null && RandomGenerator.randomDouble() < localSearchProbability) {
+                    improver.improve(child);
+                }
+            }
+        }
+        for (int i = start; i < end; i++) {
+            var computed = cache != null
+                    ? cache.evaluate(slots.get(i), graph)
+                    : GeneticOperatorHelper.evaluate(slots.get(i), graph);
+            if (computed && !counter.record(1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mutates every tour of the next generation that repeats an earlier one, up to a few times before the duplicate is
+     * kept. Hashes carried over from the parents and updated by the mutations make the check O(1) for most tours, every
+     * mutated duplicate counts as an evaluation.
+     */
+    private boolean replaceDuplicates(PopulationArena arena, DistanceMatrix graph, EvaluationCounter counter) {
+        var hasher = arena.getHasher();
+        arena.clearSeen();
+        for (var path : arena.getNext()) {
+            if (!path.isHashed()) {
+                path.setHash(hasher.hash(path.getNodes()));
+            }
+            for (int attempt = 0; !arena.markSeen(path.getHash()) && attempt < DUPLICATE_ATTEMPTS; attempt++) {
+                GeneticOperatorHelper.mutate(mutType, path, graph, hasher);
+                if (!counter.record(1)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Local search is shared by all workers and rebuilt only when the instance changes, null when disabled.
+     */
+    private LocalSearch getLocalSearch(DistanceMatrix graph) {
+        if (localSearchProbability <= 0) {
+            return null;
+        }
+        var current = localSearch;
+        if (current == null || current.getGraph() != graph) {
+            current = new LocalSearch(graph, neighbourCount, localSearchBudget);
+            localSearch = current;
+        }
+        return current;
+    }
+
+    /**
+     * Neighbour lists EAX joins its subtours along, shared by all workers and rebuilt only when the instance changes.
+     * Null for the other crossovers.
+     */
+    private NeighbourLists getCrossoverCandidates(DistanceMatrix graph) {
+        if (crossoverType != CrossoverType.EAX) {
+            return null;
+        }
+        var current = crossoverCandidates;
+        if (current == null || current.graph() != graph) {
+            current = new CrossoverCandidates(graph, graph.getNeighbourLists(NeighbourLists.DEFAULT_SIZE));
+            crossoverCandidates = current;
+        }
+        return current.lists();
+    }
+
+    /**
+     * Held-Karp bound of the instance, computed within the time budget of the given counter. Kept for later runs on the
+     * same instance unless the budget cut it short.
+     */
+    HeldKarpBound getLowerBound(DistanceMatrix graph, EvaluationCounter counter) {
+        var current = lowerBound;
+        if (current == null || current.getGraph() != graph) {
+            current = HeldKarpBound.compute(graph, HeldKarpBound.DEFAULT_ITERATION_LIMIT, counter);
+            if (current.isComplete()) {
+                lowerBound = current;
+            }
+        }
+        return current;
+    }
+
+    private ExecutorService getExecutor() {
+        return executor != null ? executor : ForkJoinPool.commonPool();
+    }
+
+    private void saveMetrics(long generationCounter, PopulationIndex population, FileWriter fileWriter) throws IOException {
         StringBuilder line = new StringBuilder();
         line.append(generationCounter).append(',');
-        line.append(population.get(0).getCost()).append(',');
-        line.append(population.get(populationSize - 1).getCost()).append(',');
-        var avg = population.stream()
-                .mapToDouble(Path::getCost)
-                .average()
-                .orElse(0.0);
-        line.append(avg);
+        line.append(population.getBestCost()).append(',');
+        line.append(population.getWorstCost()).append(',');
+        line.append(population.getMean());
         line.append("\n");
         fileWriter.write(line.toString());
     }
@@ -174,6 +403,18 @@ public class GeneticAlgorithm {
         private int eliteSize = 3;
         private int tournamentSize = 5;
         private int fitnessLimit = 1000;
+        private int parallelism = 1;
+        private ExecutorService executor = null;
+        private float localSearchProbability = 0f;
+        private int localSearchBudget = Integer.MAX_VALUE;
+        private int neighbourCount = NeighbourLists.DEFAULT_SIZE;
+        private long timeLimitMillis = 0;
+        private int stagnationGenerations = 0;
+        private long stagnationEvaluations = 0;
+        private double targetCost = 0;
+        private double optimalityGap = 0;
+        private int costCacheSize = 0;
+        private boolean rejectDuplicates = false;
 
 
         public Builder setMutationType(MutationType mutationType) {
@@ -236,8 +477,112 @@ public class GeneticAlgorithm {
             return this;
         }
 
+        /**
+         * Number of workers producing offspring of a single generation, 1 keeps the breeding loop sequential.
+         */
+        public Builder setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Executor used by parallel breeding, defaults to the common ForkJoinPool.
+         */
+        public Builder setExecutor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Chance that a child is improved by 2-opt and Or-opt local search after mutation, 0 disables the memetic
+         * stage.
+         */
+        public Builder setLocalSearchProbability(float localSearchProbability) {
+            this.localSearchProbability = localSearchProbability;
+            return this;
+        }
+
+        /**
+         * Maximum number of improving moves applied to a single child.
+         */
+        public Builder setLocalSearchBudget(int localSearchBudget) {
+            this.localSearchBudget = localSearchBudget;
+            return this;
+        }
+
+        /**
+         * Size of the candidate lists searched by local search.
+         */
+        public Builder setNeighbourCount(int neighbourCount) {
+            this.neighbourCount = neighbourCount;
+            return this;
+        }
+
+        /**
+         * Wall clock budget of a run in milliseconds, 0 means no limit. Checked after every generation and sampled
+         * while breeding, so a run overshoots it by at most a few children.
+         */
+        public Builder setTimeLimitMillis(long timeLimitMillis) {
+            this.timeLimitMillis = timeLimitMillis;
+            return this;
+        }
+
+        /**
+         * Stops once the best cost has not improved for the given number of generations, 0 disables the check.
+         */
+        public Builder setStagnationGenerations(int stagnationGenerations) {
+            this.stagnationGenerations = stagnationGenerations;
+            return this;
+        }
+
+        /**
+         * Stops once the best cost has not improved for the given number of evaluations, 0 disables the check.
+         */
+        public Builder setStagnationEvaluations(long stagnationEvaluations) {
+            this.stagnationEvaluations = stagnationEvaluations;
+            return this;
+        }
+
+        /**
+         * Stops as soon as a tour of at most the given cost is found, 0 disables the check.
+         */
+        public Builder setTargetCost(double targetCost) {
+            this.targetCost = targetCost;
+            return this;
+        }
+
+        /**
+         * Stops as soon as the best tour is within the given fraction above the Held-Karp lower bound of the instance,
+         * 0.01 for 1%, 0 disables the check. The bound is computed once per instance at the start of the first run.
+         */
+        public Builder setOptimalityGap(double optimalityGap) {
+            this.optimalityGap = optimalityGap;
+            return this;
+        }
+
+        /**
+         * Number of tour costs remembered by edge hash, so that children rebuilt by crossover into a tour seen before
+         * take its cost instead of being evaluated, 0 disables the cache.
+         */
+        public Builder setCostCacheSize(int costCacheSize) {
+            this.costCacheSize = costCacheSize;
+            return this;
+        }
+
+        /**
+         * Mutates tours that repeat another tour of the same generation, which keeps elitist populations from filling
+         * up with copies.
+         */
+        public Builder setRejectDuplicates(boolean rejectDuplicates) {
+            this.rejectDuplicates = rejectDuplicates;
+            return this;
+        }
+
         public GeneticAlgorithm build() {
             return new GeneticAlgorithm(this);
         }
     }
+
+    private record CrossoverCandidates(DistanceMatrix graph, NeighbourLists lists) {
+    }
 }
@@ -3,219 +3,298 @@ package org.genetic.alg;
 import org.genetic.alg.entities.*;
 import org.genetic.utils.RandomGenerator;
 import org.genetic.utils.entities.DistanceMatrix;
-import org.genetic.utils.entities.Interval;
+import org.genetic.utils.entities.NeighbourLists;
 
 import java.util.*;
 
 public class GeneticOperatorHelper {
+    private static volatile boolean verifyDelta = Boolean.getBoolean("genetic.verifyDelta");
+
+    /**
+     * Cross-checks every incremental cost update against a full recomputation, can also be enabled with
+     * -Dgenetic.verifyDelta=true.
+     */
+    public static void setVerifyDelta(boolean verify) {
+        verifyDelta = verify;
+    }
+
     public static List<Path> initialize(InitializationType initType, DistanceMatrix graph, int size) {
+        if (initType == InitializationType.Greedy) {
+            return createGreedyPaths(graph, size);
+        }
         List<Path> paths = new ArrayList<>();
         while (paths.size() < size) {
-            paths.add(switch (initType) {
-                case Greedy -> createGreedyPath(graph);
-                case Random -> createRandomPath(graph);
-            });
+            paths.add(createRandomPath(graph));
         }
         return paths;
     }
 
     public static void mutate(MutationType mutType, Path path, DistanceMatrix graph) {
+        mutate(mutType, path, graph, null);
+    }
+
+    /**
+     * Also updates the hash of a hashed tour with the given hasher, without a hasher the hash is dropped.
+     */
+    static void mutate(MutationType mutType, Path path, DistanceMatrix graph, TourHash hasher) {
         switch (mutType) {
-            case Swap -> swapMutation(path, graph);
-            case Inverse -> inverseMutation(path, graph);
+            case Swap -> swapMutation(path, graph, hasher);
+            case Inverse -> inverseMutation(path, graph, hasher);
             default -> throw new UnsupportedOperationException("Unsupported MutationType: " + mutType);
         }
     }
 
     public static List<Path> crossover(CrossoverType crossType, Path parent1, Path parent2, DistanceMatrix graph) {
-        return switch (crossType) {
-            case OX -> oxCrossover(parent1, parent2, graph);
-            case PMX -> pmxCrossover(parent1, parent2, graph);
+        var child1 = new Path(new int[graph.size()], 0);
+        var child2 = new Path(new int[graph.size()], 0);
+        var candidates = crossType == CrossoverType.EAX ? graph.getNeighbourLists(NeighbourLists.DEFAULT_SIZE) : null;
+        var children = crossover(crossType, parent1, parent2, graph, candidates, child1, child2) == 2
+                ? List.of(child1, child2)
+                : List.of(child1);
+        children.forEach(child -> evaluate(child, graph));
+        return children;
+    }
+
+    /**
+     * Writes the offspring into preallocated paths that must not be the parents, returns the number of children
+     * written. Operators producing two children skip the second one when child2 is null. Children rebuilt from
+     * scratch are left dirty, see {@link #evaluate}. EAX joins subtours along the candidates, which the other operators
+     * ignore and may be null for them.
+     */
+    public static int crossover(CrossoverType crossType, Path parent1, Path parent2, DistanceMatrix graph,
+                                NeighbourLists candidates, Path child1, Path child2) {
+        switch (crossType) {
+            case OX -> oxCrossover(parent1, parent2, graph, child1);
+            case PMX -> {
+                return pmxCrossover(parent1, parent2, graph, child1, child2);
+            }
+            case EAX -> EdgeAssemblyCrossover.crossover(parent1, parent2, graph, candidates, child1);
+            case GPX -> PartitionCrossover.crossover(parent1, parent2, graph, child1);
             default -> throw new UnsupportedOperationException("Unsupported CrossoverType: " + crossType);
-        };
+        }
+        return 1;
     }
 
+    /**
+     * Single draw, prefer {@link SelectionEngine#prepare} when drawing many parents from the same population.
+     */
     public static Path select(SelectionType selType, List<Path> population, int size) {
-        return switch (selType) {
-            case Roulette -> rouletteSelection(population);
-            case Tournament -> tournamentSelection(population, size);
-            default -> throw new UnsupportedOperationException("Unsupported SelectionType: " + selType);
-        };
+        return SelectionEngine.prepare(selType, population, size).select();
     }
 
 
     private static Path createRandomPath(DistanceMatrix graph) {
-        Path path = new Path();
-        int currNode;
-        List<Integer> usedNodes = new ArrayList<>();
-        while (usedNodes.size() < graph.size()) {
-            currNode = RandomGenerator.getRandomInt(graph.size(), usedNodes);
-            usedNodes.add(currNode);
-            path.addNode(currNode);
+        int[] nodes = new int[graph.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = i;
         }
-        graph.setPathCost(path);
-        return path;
+        RandomGenerator.shuffle(nodes);
+        return new Path(nodes, graph.getPathCost(nodes));
     }
 
-    private static Path createGreedyPath(DistanceMatrix graph) {
-        Path path = new Path();
-        int currNode = RandomGenerator.getRandomInt(graph.size(), Collections.emptyList());
-        List<Integer> usedNodes = new ArrayList<>();
-        usedNodes.add(currNode);
-        path.addNode(currNode);
-
-        while (usedNodes.size() < graph.size()) {
-            currNode = graph.getShortestRoute(currNode, usedNodes);
-            usedNodes.add(currNode);
-            path.addNode(currNode);
+    /**
+     * Greedy tours depend only on the start city, so every distinct start is built once, in parallel, and repeated
+     * starts receive copies.
+     */
+    private static List<Path> createGreedyPaths(DistanceMatrix graph, int size) {
+        var candidates = graph.getNeighbourLists(NeighbourLists.DEFAULT_SIZE);
+        int[] starts = new int[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = RandomGenerator.getRandomInt(graph.size());
         }
-        graph.setPathCost(path);
-        return path;
+        var tours = new Path[graph.size()];
+        Arrays.stream(starts)
+                .distinct()
+                .parallel()
+                .forEach(start -> tours[start] = GreedyAlgorithm.buildTour(graph, start, candidates));
+
+        List<Path> paths = new ArrayList<>(size);
+        var used = new boolean[graph.size()];
+        for (int start : starts) {
+            paths.add(used[start] ? new Path(tours[start]) : tours[start]);
+            used[start] = true;
+        }
+        return paths;
     }
 
-    private static void swapMutation(Path path, DistanceMatrix graph) {
-        Interval<Integer> interval = RandomGenerator.getRandomInterval(graph.size());
+    private static void swapMutation(Path path, DistanceMatrix graph, TourHash hasher) {
+        var interval = RandomGenerator.getRandomInterval(graph.size());
         int firstIndex = interval.min();
         int lastIndex = interval.max();
 
         var nodes = path.getNodes();
-        int first = nodes.get(firstIndex);
-        int second = nodes.get(lastIndex);
-
-        nodes.remove(firstIndex);
-        nodes.add(firstIndex, second);
-
-        nodes.remove(lastIndex);
-        nodes.add(lastIndex, first);
-
-        path.setNodes(nodes);
-        graph.setPathCost(path);
+        var delta = path.isDirty() ? 0 : graph.getSwapDelta(nodes, firstIndex, lastIndex);
+        boolean hashed = hasher != null && path.isHashed();
+        var hash = hashed ? hasher.swap(path.getHash(), nodes, firstIndex, lastIndex) : 0;
+        int first = nodes[firstIndex];
+        nodes[firstIndex] = nodes[lastIndex];
+        nodes[lastIndex] = first;
+
+        applyDelta(path, delta, graph);
+        if (hashed) {
+            path.setHash(hash);
+        }
     }
 
-    private static void inverseMutation(Path path, DistanceMatrix graph) {
-        Interval<Integer> interval = RandomGenerator.getRandomInterval(graph.size());
+    private static void inverseMutation(Path path, DistanceMatrix graph, TourHash hasher) {
+        var interval = RandomGenerator.getRandomInterval(graph.size());
         int firstIndex = interval.min();
         int lastIndex = interval.max();
 
         var nodes = path.getNodes();
-        List<Integer> newNodes = new ArrayList<>(nodes.size());
+        int n = nodes.length;
+        var delta = path.isDirty() ? 0 : graph.getReverseDelta(nodes, firstIndex, lastIndex);
+        boolean hashed = hasher != null && path.isHashed();
+        var hash = hashed ? hasher.reverse(path.getHash(), nodes, firstIndex, lastIndex) : 0;
+        // Reversing the complement gives the same cycle read backwards, so only the shorter side is touched
+        int length = lastIndex - firstIndex + 1;
+        if (2 * length > n) {
+            int from = lastIndex + 1;
+            lastIndex = firstIndex - 1 + n;
+            firstIndex = from;
+            length = n - length;
+        }
+        for (int k = 0; k < length / 2; k++) {
+            int i = (firstIndex + k) % n;
+            int j = (lastIndex - k) % n;
+            int tmp = nodes[i];
+            nodes[i] = nodes[j];
+            nodes[j] = tmp;
+        }
 
-        for (int i = 0; i < nodes.size(); i++) {
-            if (i >= firstIndex && i <= lastIndex) {
-                newNodes.add(firstIndex, nodes.get(i));
-            } else {
-                newNodes.add(nodes.get(i));
-            }
+        applyDelta(path, delta, graph);
+        if (hashed) {
+            path.setHash(hash);
         }
+    }
 
-        path.setNodes(newNodes);
+    /**
+     * Computes the cost of a dirty tour, returns false when the cost was already known.
+     */
+    public static boolean evaluate(Path path, DistanceMatrix graph) {
+        if (!path.isDirty()) {
+            return false;
+        }
         graph.setPathCost(path);
+        return true;
     }
 
-    private static List<Path> oxCrossover(Path parent1, Path parent2, DistanceMatrix graph) {
-        Interval<Integer> interval = RandomGenerator.getRandomInterval(graph.size());
+    static void applyDelta(Path path, double delta, DistanceMatrix graph) {
+        if (path.isDirty()) {
+            return;
+        }
+        path.setCost(path.getCost() + delta);
+        if (verifyDelta) {
+            var expected = graph.getPathCost(path.getNodes());
+            if (Math.abs(expected - path.getCost()) > 1e-6 * Math.max(1.0, expected)) {
+                throw new IllegalStateException("Delta cost " + path.getCost() + " differs from full cost " + expected);
+            }
+        }
+    }
+
+    private static void oxCrossover(Path parent1, Path parent2, DistanceMatrix graph, Path child) {
+        var interval = RandomGenerator.getRandomInterval(graph.size());
         int firstIndex = interval.min();
         int lastIndex = interval.max();
 
-        var nodes = parent1.getNodes();
-        ArrayList<Integer> unchanged = new ArrayList<>(nodes.size());
-        ArrayList<Integer> newNodes = new ArrayList<>(nodes.size());
+        var nodes1 = parent1.getNodes();
+        var nodes2 = parent2.getNodes();
+        var inSegment = CrossoverScratch.get(graph.size()).inSegment;
+        int[] newNodes = child.getNodes();
         for (int i = firstIndex; i <= lastIndex; i++) {
-            unchanged.add(nodes.get(i));
+            newNodes[i] = nodes1[i];
+            inSegment[nodes1[i]] = true;
         }
-        nodes = parent2.getNodes();
+
+        int position = 0;
         for (int i = 0; i < graph.size(); i++) {
-            var currNode = nodes.get(i);
-            if (unchanged.contains(currNode)) {
+            var currNode = nodes2[i];
+            if (inSegment[currNode]) {
                 continue;
             }
-            newNodes.add(currNode);
+            if (position == firstIndex) {
+                position = lastIndex + 1;
+            }
+            newNodes[position++] = currNode;
         }
-        newNodes.addAll(firstIndex, unchanged);
-        var newPath = new Path(newNodes, 0);
-        graph.setPathCost(newPath);
-        return List.of(newPath);
+        for (int i = firstIndex; i <= lastIndex; i++) {
+            inSegment[nodes1[i]] = false;
+        }
+        child.markDirty();
     }
 
-    private static List<Path> pmxCrossover(Path parent1, Path parent2, DistanceMatrix graph) {
-        Interval<Integer> interval = RandomGenerator.getRandomInterval(graph.size());
+    private static int pmxCrossover(Path parent1, Path parent2, DistanceMatrix graph, Path child1, Path child2) {
+        var interval = RandomGenerator.getRandomInterval(graph.size());
         int firstIndex = interval.min();
         int lastIndex = interval.max();
 
         var nodes1 = parent1.getNodes();
         var nodes2 = parent2.getNodes();
-        var mapOneTwo = new HashMap<Integer, Integer>();
-        var mapTwoOne = new HashMap<Integer, Integer>();
+        var scratch = CrossoverScratch.get(graph.size());
+        var mapOneTwo = scratch.mapOneTwo;
+        var mapTwoOne = scratch.mapTwoOne;
 
         for (int i = firstIndex; i <= lastIndex; i++) {
-            mapOneTwo.put(nodes1.get(i), nodes2.get(i));
-            mapTwoOne.put(nodes2.get(i), nodes1.get(i));
+            mapOneTwo[nodes1[i]] = nodes2[i] + 1;
+            mapTwoOne[nodes2[i]] = nodes1[i] + 1;
         }
 
-        var newPath1 = new Path(constructChild(nodes1, nodes2, graph.size(), mapTwoOne, interval), 0);
-        graph.setPathCost(newPath1);
-
-        var newPath2 = new Path(constructChild(nodes2, nodes1, graph.size(), mapOneTwo, interval), 0);
-        graph.setPathCost(newPath2);
+        constructChild(nodes1, nodes2, child1.getNodes(), mapTwoOne, firstIndex, lastIndex);
+        child1.markDirty();
+        if (child2 != null) {
+            constructChild(nodes2, nodes1, child2.getNodes(), mapOneTwo, firstIndex, lastIndex);
+            child2.markDirty();
+        }
 
-        return List.of(newPath1, newPath2);
+        for (int i = firstIndex; i <= lastIndex; i++) {
+            mapOneTwo[nodes1[i]] = 0;
+            mapTwoOne[nodes2[i]] = 0;
+        }
+        return child2 != null ? 2 : 1;
     }
 
-    private static ArrayList<Integer> constructChild(List<Integer> baseNodes, List<Integer> otherNodes, int size, HashMap<Integer, Integer> mapping, Interval<Integer> interval) {
-        var child = new ArrayList<Integer>();
-        int firstIndex = interval.min();
-        int lastIndex = interval.max();
+    /**
+     * The mapping holds the target node + 1, 0 marks an unmapped node. Every chain is entered from a single gene
+     * outside the segment, so all chains together are walked in O(n).
+     */
+    private static void constructChild(int[] baseNodes, int[] otherNodes, int[] child, int[] mapping, int firstIndex, int lastIndex) {
+        int size = child.length;
+        System.arraycopy(otherNodes, firstIndex, child, firstIndex, lastIndex - firstIndex + 1);
         for (int i = 0; i < size; i++) {
             if (i >= firstIndex && i <= lastIndex) {
-                child.add(otherNodes.get(i));
                 continue;
             }
 
-            var currNode = baseNodes.get(i);
-            if (mapping.containsKey(currNode)) {
-                var currValue = mapping.get(currNode);
-                while (mapping.containsKey(currValue)) {
-                    currValue = mapping.get(currValue);
-                }
-                child.add(currValue);
-            } else {
-                child.add(baseNodes.get(i));
+            var currNode = baseNodes[i];
+            while (mapping[currNode] != 0) {
+                currNode = mapping[currNode] - 1;
             }
+            child[i] = currNode;
         }
-        return child;
     }
 
-    private static Path rouletteSelection(List<Path> population) {
-        List<Member> weights = new ArrayList<>(population.size());
-        var multiplier = 1 / population.stream().mapToDouble(Path::getCost).sum();
-        var start = 0.0;
-        for (Path path : population) {
-            var length = path.getCost() * multiplier;
-            var interval = new Interval<>(start, start + length);
-            weights.add(new Member(path, interval));
-            start += length;
+    /**
+     * Per-thread crossover buffers indexed by node, always left cleared after use.
+     */
+    private static final class CrossoverScratch {
+        private static final ThreadLocal<CrossoverScratch> local = new ThreadLocal<>();
+        private final boolean[] inSegment;
+        private final int[] mapOneTwo;
+        private final int[] mapTwoOne;
+
+        private CrossoverScratch(int size) {
+            this.inSegment = new boolean[size];
+            this.mapOneTwo = new int[size];
+            this.mapTwoOne = new int[size];
         }
 
-
-        var rand = RandomGenerator.randomDouble();
-        return weights.stream()
-                .filter(e -> rand >= e.interval().min() && rand <= e.interval().max())
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No winner found"))
-                .path();
-    }
-
-    private static Path tournamentSelection(List<Path> population, int tournamentSize) {
-        List<Integer> usedNodes = new ArrayList<>(tournamentSize);
-        List<Path> candidates = new ArrayList<>(tournamentSize);
-
-        while (usedNodes.size() < tournamentSize) {
-            var currNode = RandomGenerator.getRandomInt(population.size(), usedNodes);
-            usedNodes.add(currNode);
-            candidates.add(population.get(currNode));
+        static CrossoverScratch get(int size) {
+            var scratch = local.get();
+            if (scratch == null || scratch.inSegment.length != size) {
+                scratch = new CrossoverScratch(size);
+                local.set(scratch);
+            }
+            return scratch;
         }
-
-        return candidates.stream().min(Comparator.comparing(Path::getCost)).orElse(null);
     }
 }
-
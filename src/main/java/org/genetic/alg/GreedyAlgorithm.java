@@ -2,28 +2,47 @@ package org.genetic.alg;
 
 import org.genetic.alg.entities.Path;
 import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.NeighbourLists;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class GreedyAlgorithm {
     public static List<Path> execute(DistanceMatrix graph) {
-        var population = new ArrayList<Path>();
-        for (int i = 0; i < graph.size(); i++) {
-            Path path = new Path();
-            int currNode = i;
-            List<Integer> usedNodes = new ArrayList<>();
-            usedNodes.add(currNode);
-            path.addNode(currNode);
+        return execute(graph, true);
+    }
+
+    /**
+     * Builds one nearest neighbour tour per start city, spreading the start cities over all cores when parallel.
+     */
+    public static List<Path> execute(DistanceMatrix graph, boolean parallel) {
+        var candidates = graph.getNeighbourLists(NeighbourLists.DEFAULT_SIZE);
+        var starts = IntStream.range(0, graph.size());
+        if (parallel) {
+            starts = starts.parallel();
+        }
+        return starts.mapToObj(start -> buildTour(graph, start, candidates))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Nearest neighbour tour from the given city. Each step takes the first unvisited candidate, so the tour costs
+     * O(n k) while candidates last and O(n^2) in the worst case.
+     */
+    public static Path buildTour(DistanceMatrix graph, int start, NeighbourLists candidates) {
+        int[] nodes = new int[graph.size()];
+        boolean[] visited = new boolean[graph.size()];
+        int currNode = start;
+        visited[currNode] = true;
+        nodes[0] = currNode;
 
-            while (usedNodes.size() < graph.size()) {
-                currNode = graph.getShortestRoute(currNode, usedNodes);
-                usedNodes.add(currNode);
-                path.addNode(currNode);
-            }
-            graph.setPathCost(path);
-            population.add(path);
+        for (int i = 1; i < graph.size(); i++) {
+            currNode = graph.getShortestRoute(currNode, visited, candidates);
+            visited[currNode] = true;
+            nodes[i] = currNode;
         }
-        return population;
+        return new Path(nodes, graph.getPathCost(nodes));
     }
 }
@@ -0,0 +1,554 @@
+package org.genetic.alg;
+
+import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.NeighbourLists;
+
+import java.util.Arrays;
+
+/**
+ * Held-Karp lower bound of the optimal tour. A minimum 1-tree, a spanning tree over all nodes but node 0 plus the two
+ * cheapest edges of node 0, is never longer than a tour. Node penalties pi are added to every edge, d(i, j) + pi[i] +
+ * pi[j], which leaves the ranking of tours unchanged and shifts their cost by 2 sum(pi), and are raised by subgradient
+ * ascent on nodes of degree above two and lowered on leaves until the 1-tree gets as close to a tour as it can. Each
+ * 1-tree is found by Prim's algorithm over the full matrix, O(n^2).
+ * <p>
+ * Above {@code genetic.sparseBoundSize} nodes the ascent runs on a sparse graph of the nearest neighbours of every
+ * node instead, O(n k log n) per 1-tree. A tree over a subgraph can be longer than the minimum one, so the bound is
+ * taken from a single 1-tree over the full matrix at the best penalties found.
+ * <p>
+ * As a by-product the alpha-nearness of every edge is available, the increase of the minimum 1-tree length when the
+ * edge is forced into it. Optimal tours are made almost entirely of edges of small alpha, so candidate lists ranked by
+ * alpha cover them with far fewer candidates than lists ranked by distance.
+ */
+public final class HeldKarpBound {
+    public static final int DEFAULT_ITERATION_LIMIT = 1000;
+    private static final double EPSILON = 1e-9;
+    private static final double INITIAL_STEP = 2;
+    private static final double MIN_STEP = 1e-3;
+    private static final int STEP_PERIOD = 20;
+    private static final int SPARSE_SIZE = Integer.getInteger("genetic.sparseBoundSize", 2000);
+    private static final int SPARSE_DEGREE = 10;
+    private static final int DEADLINE_ROWS = 256;
+
+    private final DistanceMatrix graph;
+    private final int size;
+    private final EvaluationCounter counter;
+    private final double[] penalties;
+    private final int[] parent;
+    private final double[] parentCost;
+    private final int[] order;
+    private final int[] degree;
+    private final double[] key;
+    private final boolean[] inTree;
+    private int[] edgeStart;
+    private int[] edges;
+    private int[] heap;
+    private int[] heapPosition;
+    private int heapSize;
+    private int first;
+    private int second;
+    private double bound;
+    private boolean tour;
+    private boolean complete;
+    private int iterations;
+    private volatile CandidateCache candidates;
+
+    private HeldKarpBound(DistanceMatrix graph, EvaluationCounter counter) {
+        this.graph = graph;
+        this.size = graph.size();
+        this.counter = counter;
+        this.penalties = new double[size];
+        this.parent = new int[size];
+        this.parentCost = new double[size];
+        this.order = new int[size];
+        this.degree = new int[size];
+        this.key = new double[size];
+        this.inTree = new boolean[size];
+    }
+
+    /**
+     * Runs at most the given number of ascent steps. The step size follows Polyak's rule against the cost of a nearest
+     * neighbour tour and is halved whenever the bound has not improved for a while, so the ascent usually stops well
+     * before the limit.
+     */
+    public static HeldKarpBound compute(DistanceMatrix graph, int iterationLimit) {
+        return compute(graph, iterationLimit, null);
+    }
+
+    /**
+     * Same as {@link #compute(DistanceMatrix, int)}, but stops the ascent once the time limit of the counter has
+     * passed. The bound is left at 0 when not even one 1-tree over the full matrix was finished by then.
+     */
+    static HeldKarpBound compute(DistanceMatrix graph, int iterationLimit, EvaluationCounter counter) {
+        var heldKarp = new HeldKarpBound(graph, counter);
+        if (graph.size() < 3) {
+            heldKarp.bound = graph.size() == 2 ? 2 * graph.getDistance(0, 1) : 0;
+            heldKarp.tour = true;
+            heldKarp.complete = true;
+            return heldKarp;
+        }
+        heldKarp.ascend(iterationLimit);
+        return heldKarp;
+    }
+
+    public DistanceMatrix getGraph() {
+        return graph;
+    }
+
+    /**
+     * Lower bound on the cost of every tour of the instance.
+     */
+    public double getBound() {
+        return bound;
+    }
+
+    /**
+     * True when the best 1-tree is itself a tour, in which case the bound is the optimal cost.
+     */
+    public boolean isTour() {
+        return tour;
+    }
+
+    /**
+     * False when the time limit cut the computation short and the bound is 0.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getPenalty(int node) {
+        return penalties[node];
+    }
+
+    /**
+     * Relative distance of the given cost above the bound, 0.01 for a tour 1% longer than the bound.
+     */
+    public double getGap(double cost) {
+        return bound > 0 ? cost / bound - 1 : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * The k other nodes of smallest alpha-nearness of every node, ties broken by distance. Built in O(n^2) and kept
+     * for later calls with the same k. On sparse instances only the 2k nearest nodes are ranked, in O(n k depth).
+     */
+    public NeighbourLists getCandidates(int k) {
+        var current = candidates;
+        if (current != null && current.k() == k) {
+            return current.lists();
+        }
+        NeighbourLists lists;
+        if (size < 3) {
+            lists = NeighbourLists.build(graph, k);
+        } else if (isSparse()) {
+            lists = buildSparseCandidates(Math.max(0, Math.min(k, size - 1)));
+        } else {
+            lists = buildCandidates(Math.max(0, Math.min(k, size - 1)));
+        }
+        candidates = new CandidateCache(k, lists);
+        return lists;
+    }
+
+    private boolean isSparse() {
+        return size > SPARSE_SIZE;
+    }
+
+    private boolean isExpired() {
+        return counter != null && counter.isExpired();
+    }
+
+    private void ascend(int iterationLimit) {
+        var sparse = isSparse();
+        if (sparse) {
+            buildSparseGraph();
+        }
+        var pi = new double[size];
+        var upper = GreedyAlgorithm.buildTour(graph, 0, graph.getNeighbourLists(NeighbourLists.DEFAULT_SIZE)).getCost();
+        var best = Double.NEGATIVE_INFINITY;
+        var step = INITIAL_STEP;
+        int sinceImproved = 0;
+        while (iterations < iterationLimit && (iterations == 0 || !isExpired())) {
+            iterations++;
+            var lowerBound = sparse ? buildSparseTree(pi) : buildTree(pi, false);
+            if (lowerBound > best + EPSILON) {
+                best = lowerBound;
+                System.arraycopy(pi, 0, penalties, 0, size);
+                sinceImproved = 0;
+            } else if (++sinceImproved >= STEP_PERIOD) {
+                step /= 2;
+                sinceImproved = 0;
+                if (step < MIN_STEP) {
+                    break;
+                }
+            }
+            long norm = 0;
+            for (int node = 0; node < size; node++) {
+                int excess = degree[node] - 2;
+                norm += (long) excess * excess;
+            }
+            if (norm == 0) {
+                tour = true;
+                break;
+            }
+            if (upper - lowerBound <= EPSILON) {
+                break;
+            }
+            var t = step * (upper - lowerBound) / norm;
+            for (int node = 0; node < size; node++) {
+                pi[node] += t * (degree[node] - 2);
+            }
+        }
+        // Leaves the 1-tree of the best penalties in place for the alpha values
+        var lowerBound = buildTree(penalties, sparse);
+        if (Double.isNaN(lowerBound)) {
+            buildSparseTree(penalties);
+            return;
+        }
+        bound = sparse ? lowerBound : best;
+        complete = true;
+        tour = tour && Math.abs(lowerBound - best) <= EPSILON;
+    }
+
+    /**
+     * Minimum 1-tree under the given penalties by Prim's algorithm rooted at node 1, recording every node's parent in
+     * the order nodes joined the tree and the degrees. Returns the 1-tree length minus twice the penalty sum, or NaN
+     * when the tree is interruptible and the time limit passes before it is done.
+     */
+    private double buildTree(double[] pi, boolean interruptible) {
+        Arrays.fill(key, Double.POSITIVE_INFINITY);
+        Arrays.fill(inTree, false);
+        Arrays.fill(degree, 0);
+        int root = 1;
+        parent[root] = -1;
+        key[root] = 0;
+        double length = 0;
+        int next = root;
+        for (int step = 0; step < size - 1; step++) {
+            if (interruptible && step % DEADLINE_ROWS == 0 && isExpired()) {
+                return Double.NaN;
+            }
+            int u = next;
+            length += join(u, step);
+            next = -1;
+            var nearest = Double.POSITIVE_INFINITY;
+            for (int v = 1; v < size; v++) {
+                if (inTree[v]) {
+                    continue;
+                }
+                var cost = graph.getDistance(u, v) + pi[u] + pi[v];
+                if (cost < key[v]) {
+                    key[v] = cost;
+                    parent[v] = u;
+                }
+                if (key[v] < nearest) {
+                    nearest = key[v];
+                    next = v;
+                }
+            }
+        }
+        return length + attachSpecial(pi);
+    }
+
+    /**
+     * Minimum spanning tree of the sparse graph by Prim's algorithm with a binary heap, then node 0 as in the dense
+     * case. When the sparse graph falls apart, the first node left is joined to its nearest tree node.
+     */
+    private double buildSparseTree(double[] pi) {
+        Arrays.fill(key, Double.POSITIVE_INFINITY);
+        Arrays.fill(inTree, false);
+        Arrays.fill(degree, 0);
+        Arrays.fill(heapPosition, -1);
+        heapSize = 0;
+        int root = 1;
+        parent[root] = -1;
+        key[root] = 0;
+        push(root);
+        double length = 0;
+        int unvisited = 1;
+        for (int step = 0; step < size - 1; step++) {
+            int u;
+            if (heapSize > 0) {
+                u = pop();
+            } else {
+                while (inTree[unvisited]) {
+                    unvisited++;
+                }
+                u = unvisited;
+                for (int i = 0; i < step; i++) {
+                    var cost = graph.getDistance(order[i], u) + pi[order[i]] + pi[u];
+                    if (cost < key[u]) {
+                        key[u] = cost;
+                        parent[u] = order[i];
+                    }
+                }
+            }
+            length += join(u, step);
+            for (int e = edgeStart[u]; e < edgeStart[u + 1]; e++) {
+                int v = edges[e];
+                if (inTree[v]) {
+                    continue;
+                }
+                var cost = graph.getDistance(u, v) + pi[u] + pi[v];
+                if (cost < key[v]) {
+                    key[v] = cost;
+                    parent[v] = u;
+                    if (heapPosition[v] < 0) {
+                        push(v);
+                    } else {
+                        siftUp(heapPosition[v]);
+                    }
+                }
+            }
+        }
+        return length + attachSpecial(pi);
+    }
+
+    /**
+     * Adds the node to the tree as the step-th one, returns the cost of the edge to its parent.
+     */
+    private double join(int u, int step) {
+        inTree[u] = true;
+        order[step] = u;
+        parentCost[u] = key[u];
+        if (parent[u] >= 0) {
+            degree[u]++;
+            degree[parent[u]]++;
+        }
+        return key[u];
+    }
+
+    /**
+     * Connects node 0 by its two cheapest edges, returns their cost minus twice the penalty sum.
+     */
+    private double attachSpecial(double[] pi) {
+        first = -1;
+        second = -1;
+        var firstCost = Double.POSITIVE_INFINITY;
+        var secondCost = Double.POSITIVE_INFINITY;
+        for (int v = 1; v < size; v++) {
+            var cost = graph.getDistance(0, v) + pi[0] + pi[v];
+            if (cost < firstCost) {
+                second = first;
+                secondCost = firstCost;
+                first = v;
+                firstCost = cost;
+            } else if (cost < secondCost) {
+                second = v;
+                secondCost = cost;
+            }
+        }
+        degree[0] = 2;
+        degree[first]++;
+        degree[second]++;
+
+        double penaltySum = 0;
+        for (var penalty : pi) {
+            penaltySum += penalty;
+        }
+        return firstCost + secondCost - 2 * penaltySum;
+    }
+
+    /**
+     * Adjacency arrays of the nearest neighbour graph over nodes 1 to n - 1, made symmetric.
+     */
+    private void buildSparseGraph() {
+        var neighbours = graph.getNeighbourLists(SPARSE_DEGREE);
+        edgeStart = new int[size + 1];
+        for (int u = 1; u < size; u++) {
+            for (int i = 0; i < neighbours.k(); i++) {
+                int v = neighbours.get(u, i);
+                if (v != 0) {
+                    edgeStart[u + 1]++;
+                    edgeStart[v + 1]++;
+                }
+            }
+        }
+        for (int u = 0; u < size; u++) {
+            edgeStart[u + 1] += edgeStart[u];
+        }
+        edges = new int[edgeStart[size]];
+        var fill = Arrays.copyOf(edgeStart, size);
+        for (int u = 1; u < size; u++) {
+            for (int i = 0; i < neighbours.k(); i++) {
+                int v = neighbours.get(u, i);
+                if (v != 0) {
+                    edges[fill[u]++] = v;
+                    edges[fill[v]++] = u;
+                }
+            }
+        }
+        heap = new int[size];
+        heapPosition = new int[size];
+    }
+
+    private void push(int node) {
+        heap[heapSize] = node;
+        heapPosition[node] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapPosition[top] = -1;
+        if (--heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPosition[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int position) {
+        int node = heap[position];
+        while (position > 0) {
+            int up = (position - 1) / 2;
+            if (key[heap[up]] <= key[node]) {
+                break;
+            }
+            heap[position] = heap[up];
+            heapPosition[heap[position]] = position;
+            position = up;
+        }
+        heap[position] = node;
+        heapPosition[node] = position;
+    }
+
+    private void siftDown(int position) {
+        int node = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && key[heap[child + 1]] < key[heap[child]]) {
+                child++;
+            }
+            if (key[heap[child]] >= key[node]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapPosition[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = node;
+        heapPosition[node] = position;
+    }
+
+    /**
+     * Computes alpha row by row in O(n) each. beta(i, j) is the heaviest tree edge on the path from i to j, found by
+     * walking from i up to the root and then down the tree in join order, so that every node's parent is done first.
+     * alpha(i, j) is the cost of (i, j) minus beta(i, j); for node 0 it is the cost minus its second 1-tree edge.
+     */
+    private NeighbourLists buildCandidates(int k) {
+        var neighbours = new int[size * k];
+        var alphas = new double[k];
+        var costs = new double[k];
+        var beta = new double[size];
+        var mark = new int[size];
+        for (int node = 0; node < size; node++) {
+            if (node != 0) {
+                int stamp = node + 1;
+                beta[node] = Double.NEGATIVE_INFINITY;
+                mark[node] = stamp;
+                for (int j = node; parent[j] >= 0; j = parent[j]) {
+                    beta[parent[j]] = Math.max(beta[j], parentCost[j]);
+                    mark[parent[j]] = stamp;
+                }
+                for (int i = 0; i < size - 1; i++) {
+                    int j = order[i];
+                    if (mark[j] != stamp) {
+                        beta[j] = Math.max(beta[parent[j]], parentCost[j]);
+                    }
+                }
+            }
+
+            int found = 0;
+            for (int other = 0; other < size; other++) {
+                if (other != node) {
+                    found = insert(neighbours, alphas, costs, node, found, other,
+                            node == 0 || other == 0 ? specialAlpha(node, other) : cost(node, other) - beta[other]);
+                }
+            }
+        }
+        return new NeighbourLists(neighbours, k);
+    }
+
+    /**
+     * Ranks only the nearest nodes of every node by alpha, beta(i, j) found by climbing the tree from both ends to
+     * their common ancestor.
+     */
+    private NeighbourLists buildSparseCandidates(int k) {
+        var pool = graph.getNeighbourLists(Math.min(size - 1, Math.max(2 * k, SPARSE_DEGREE)));
+        var depth = new int[size];
+        for (int i = 1; i < size - 1; i++) {
+            depth[order[i]] = depth[parent[order[i]]] + 1;
+        }
+        var neighbours = new int[size * k];
+        var alphas = new double[k];
+        var costs = new double[k];
+        for (int node = 0; node < size; node++) {
+            int found = 0;
+            for (int i = 0; i < pool.k(); i++) {
+                int other = pool.get(node, i);
+                found = insert(neighbours, alphas, costs, node, found, other, node == 0 || other == 0
+                        ? specialAlpha(node, other)
+                        : cost(node, other) - pathMaximum(node, other, depth));
+            }
+        }
+        return new NeighbourLists(neighbours, k);
+    }
+
+    private double pathMaximum(int x, int y, int[] depth) {
+        var maximum = Double.NEGATIVE_INFINITY;
+        while (x != y) {
+            if (depth[x] >= depth[y]) {
+                maximum = Math.max(maximum, parentCost[x]);
+                x = parent[x];
+            } else {
+                maximum = Math.max(maximum, parentCost[y]);
+                y = parent[y];
+            }
+        }
+        return maximum;
+    }
+
+    private double specialAlpha(int node, int other) {
+        int end = node == 0 ? other : node;
+        return end == first || end == second ? 0 : cost(node, other) - cost(0, second);
+    }
+
+    /**
+     * Inserts other into the row of node, kept sorted by alpha and then cost, returns the new row length.
+     */
+    private int insert(int[] neighbours, double[] alphas, double[] costs, int node, int found, int other,
+                       double alpha) {
+        int k = alphas.length;
+        int offset = node * k;
+        var cost = cost(node, other);
+        if (k == 0 || found == k && (alpha > alphas[k - 1] || alpha == alphas[k - 1] && cost >= costs[k - 1])) {
+            return found;
+        }
+        int position = found < k ? found++ : k - 1;
+        while (position > 0 && (alphas[position - 1] > alpha
+                || alphas[position - 1] == alpha && costs[position - 1] > cost)) {
+            alphas[position] = alphas[position - 1];
+            costs[position] = costs[position - 1];
+            neighbours[offset + position] = neighbours[offset + position - 1];
+            position--;
+        }
+        alphas[position] = alpha;
+        costs[position] = cost;
+        neighbours[offset + position] = other;
+        return found;
+    }
+
+    private double cost(int x, int y) {
+        return graph.getDistance(x, y) + penalties[x] + penalties[y];
+    }
+
+    private record CandidateCache(int k, NeighbourLists lists) {
+    }
+}
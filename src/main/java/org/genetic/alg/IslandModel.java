@@ -0,0 +1,270 @@
+package org.genetic.alg;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.genetic.alg.entities.IslandMetrics;
+import org.genetic.alg.entities.IslandResult;
+import org.genetic.alg.entities.MigrationTopology;
+import org.genetic.alg.entities.Path;
+import org.genetic.alg.entities.StopReason;
+import org.genetic.utils.RandomGenerator;
+import org.genetic.utils.entities.DistanceMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs several independent GeneticAlgorithm populations concurrently and exchanges their best tours every
+ * migrationInterval generations along the configured topology.
+ */
+@Getter
+public class IslandModel {
+    private final List<GeneticAlgorithm> islands;
+    private final MigrationTopology topology;
+    private final int migrationInterval;
+    private final int migrationSize;
+    private final int generationLimit;
+    private final ExecutorService executor;
+
+    public IslandModel(Builder builder) {
+        this.islands = List.copyOf(builder.islands);
+        this.topology = builder.topology;
+        this.migrationInterval = builder.migrationInterval;
+        this.migrationSize = builder.migrationSize;
+        this.generationLimit = builder.generationLimit;
+        this.executor = builder.executor;
+    }
+
+    public IslandResult execute(DistanceMatrix graph) {
+        if (islands.isEmpty()) {
+            throw new IllegalStateException("Island model requires at least one island");
+        }
+        var states = new ArrayList<Island>(islands.size());
+        for (var genetic : islands) {
+            states.add(new Island(genetic, graph));
+        }
+
+        var pool = executor != null ? executor : Executors.newFixedThreadPool(
+                Math.min(islands.size(), Runtime.getRuntime().availableProcessors())
+        );
+        try {
+            int generation = 0;
+            while (generation < generationLimit && states.stream().anyMatch(Island::isRunning)) {
+                int epoch = Math.min(migrationInterval, generationLimit - generation);
+                List<Callable<Void>> tasks = new ArrayList<>(states.size());
+                for (var state : states) {
+                    var stream = RandomGenerator.split();
+                    tasks.add(() -> {
+                        RandomGenerator.bind(stream);
+                        try {
+                            state.evolve(epoch);
+                        } finally {
+                            RandomGenerator.unbind();
+                        }
+                        return null;
+                    });
+                }
+                for (var task : pool.invokeAll(tasks)) {
+                    task.get();
+                }
+                generation += epoch;
+                if (generation < generationLimit) {
+                    migrate(states);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Island model interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Island evolution failed", e.getCause());
+        } finally {
+            if (executor == null) {
+                pool.shutdown();
+            }
+        }
+
+        var metrics = new ArrayList<IslandMetrics>(states.size());
+        Path best = null;
+        for (int i = 0; i < states.size(); i++) {
+            var state = states.get(i);
+            metrics.add(state.getMetrics(i));
+            if (best == null || state.bestPath.getCost() < best.getCost()) {
+                best = state.bestPath;
+            }
+        }
+        return new IslandResult(new Path(best), metrics);
+    }
+
+    private void migrate(List<Island> states) {
+        int count = states.size();
+        if (count < 2 || migrationSize <= 0) {
+            return;
+        }
+        List<List<Path>> incoming = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            incoming.add(new ArrayList<>());
+        }
+        for (int i = 0; i < count; i++) {
+            var emigrants = states.get(i).getEmigrants(migrationSize);
+            switch (topology) {
+                case Ring -> incoming.get((i + 1) % count).addAll(emigrants);
+                case FullyConnected -> {
+                    for (int j = 0; j < count; j++) {
+                        if (j != i) {
+                            incoming.get(j).addAll(emigrants);
+                        }
+                    }
+                }
+                case Random -> {
+                    int target = RandomGenerator.getRandomInt(count - 1);
+                    incoming.get(target >= i ? target + 1 : target).addAll(emigrants);
+                }
+                default -> throw new UnsupportedOperationException("Unsupported MigrationTopology: " + topology);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            states.get(i).accept(incoming.get(i));
+        }
+    }
+
+    private static class Island {
+        private final GeneticAlgorithm genetic;
+        private final DistanceMatrix graph;
+        private final EvaluationCounter counter;
+        private final List<Double> bestCosts = new ArrayList<>();
+        private final PopulationArena arena;
+        private final PopulationIndex population;
+        private final Path bestPath;
+        private final StopMonitor monitor;
+        private StopReason stopReason;
+        private int generations;
+        private int migrantsReceived;
+
+        Island(GeneticAlgorithm genetic, DistanceMatrix graph) {
+            this.genetic = genetic;
+            this.graph = graph;
+            this.counter = genetic.createCounter();
+            this.monitor = new StopMonitor(genetic, graph, counter);
+            this.stopReason = counter.record(genetic.getPopulationSize()) ? null : counter.getStopReason();
+            this.arena = genetic.createArena(graph);
+            this.population = arena.getIndex();
+            this.bestPath = new Path(population.getBest());
+        }
+
+        boolean isRunning() {
+            return stopReason == null;
+        }
+
+        void evolve(int generationCount) {
+            for (int i = 0; i < generationCount && isRunning(); i++) {
+                if (!genetic.nextGeneration(arena, graph, counter)) {
+                    stopReason = counter.getStopReason();
+                    break;
+                }
+                generations++;
+                trackBest();
+                bestCosts.add(bestPath.getCost());
+                stopReason = monitor.check(generations, bestPath.getCost(), counter);
+            }
+        }
+
+        List<Path> getEmigrants(int size) {
+            var elites = population.elites(size);
+            var emigrants = new ArrayList<Path>(elites.length);
+            for (var elite : elites) {
+                emigrants.add(population.get(elite));
+            }
+            return emigrants;
+        }
+
+        /**
+         * Replaces the worst members with copies of the migrants, never touching the elite slots. The replaced tours
+         * are dropped rather than overwritten, since other islands may still be about to copy them.
+         */
+        void accept(List<Path> migrants) {
+            int replaceable = population.size() - genetic.getEliteSize();
+            int count = Math.max(0, Math.min(migrants.size(), replaceable));
+            var worst = population.worst(count);
+            for (int i = 0; i < count; i++) {
+                population.set(worst[i], new Path(migrants.get(i)));
+            }
+            migrantsReceived += count;
+            trackBest();
+        }
+
+        private void trackBest() {
+            if (population.getBestCost() < bestPath.getCost()) {
+                bestPath.copyFrom(population.getBest());
+            }
+        }
+
+        IslandMetrics getMetrics(int index) {
+            return new IslandMetrics(
+                    index, genetic.getMutType(), genetic.getCrossoverType(), genetic.getSelType(),
+                    generations, counter.getCount(), migrantsReceived, bestPath.getCost(), List.copyOf(bestCosts),
+                    stopReason != null ? stopReason : StopReason.GenerationLimit
+            );
+        }
+    }
+
+    @NoArgsConstructor
+    public static class Builder {
+        private final List<GeneticAlgorithm> islands = new ArrayList<>();
+        private MigrationTopology topology = MigrationTopology.Ring;
+        private int migrationInterval = 50;
+        private int migrationSize = 5;
+        private int generationLimit = 3000;
+        private ExecutorService executor = null;
+
+        public Builder addIsland(GeneticAlgorithm genetic) {
+            this.islands.add(genetic);
+            return this;
+        }
+
+        /**
+         * Adds the given number of islands sharing a single configuration.
+         */
+        public Builder addIslands(GeneticAlgorithm genetic, int count) {
+            for (int i = 0; i < count; i++) {
+                this.islands.add(new GeneticAlgorithm(genetic));
+            }
+            return this;
+        }
+
+        public Builder setTopology(MigrationTopology topology) {
+            this.topology = topology;
+            return this;
+        }
+
+        public Builder setMigrationInterval(int migrationInterval) {
+            this.migrationInterval = migrationInterval;
+            return this;
+        }
+
+        public Builder setMigrationSize(int migrationSize) {
+            this.migrationSize = migrationSize;
+            return this;
+        }
+
+        public Builder setGenerationLimit(int generationLimit) {
+            this.generationLimit = generationLimit;
+            return this;
+        }
+
+        /**
+         * Executor running the islands, defaults to a fixed pool with one thread per island up to the core count.
+         */
+        public Builder setExecutor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public IslandModel build() {
+            return new IslandModel(this);
+        }
+    }
+}
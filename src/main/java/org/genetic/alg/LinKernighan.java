@@ -0,0 +1,366 @@
+package org.genetic.alg;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.genetic.alg.entities.Path;
+import org.genetic.alg.entities.Tour;
+import org.genetic.utils.RandomGenerator;
+import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.NeighbourLists;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Chained Lin-Kernighan. Every improvement step removes the edge (t1, t2), adds an edge from t2 to a candidate t3 and
+ * removes (t4, t3), which is a 2-opt move that leaves t4 as the new loose end, and keeps going while the partial gain
+ * stays positive. The best closed tour along the chain is kept. Local optima are perturbed by segment-local double
+ * bridge kicks, a kick is kept only when the tour improves after re-optimising around it.
+ */
+@Getter
+public class LinKernighan {
+    private static final double EPSILON = 1e-9;
+    private static final int KICK_SEGMENT = 50;
+
+    private final int neighbourCount;
+    private final int maxDepth;
+    private final int kickLimit;
+    private final long timeLimitMillis;
+    private final boolean alphaCandidates;
+    @Getter(AccessLevel.NONE)
+    private volatile HeldKarpBound lowerBound;
+
+    public LinKernighan(Builder builder) {
+        this.neighbourCount = builder.neighbourCount;
+        this.maxDepth = builder.maxDepth;
+        this.kickLimit = builder.kickLimit;
+        this.timeLimitMillis = builder.timeLimitMillis;
+        this.alphaCandidates = builder.alphaCandidates;
+    }
+
+    /**
+     * Starts from the best nearest neighbour tour.
+     */
+    public Path execute(DistanceMatrix graph) {
+        var start = GreedyAlgorithm.execute(graph).stream()
+                .min(Comparator.comparing(Path::getCost))
+                .orElseThrow();
+        return improve(graph, start);
+    }
+
+    /**
+     * Returns an improved copy of the given tour, usable as a post-optimizer for the result of another solver.
+     */
+    public Path improve(DistanceMatrix graph, Path start) {
+        if (graph.size() < 8) {
+            return new Path(start);
+        }
+        // Only the time budget of the counter is used, the bound and the kicks share it
+        var counter = new EvaluationCounter(Long.MAX_VALUE, timeLimitMillis);
+        var tour = Tour.of(start.getNodes());
+        var bound = alphaCandidates ? getLowerBound(graph, counter) : null;
+        var candidates = bound != null && bound.isComplete()
+                ? bound.getCandidates(neighbourCount)
+                : graph.getNeighbourLists(neighbourCount);
+        var search = new Search(graph, tour, candidates, counter);
+        var delta = search.run();
+        var child = new Path(search.tour.toNodes(), start.getCost());
+        GeneticOperatorHelper.applyDelta(child, delta, graph);
+        return child;
+    }
+
+    /**
+     * The bound is computed within the time budget of the given counter and kept for later calls on the same instance
+     * unless the budget cut it short, in which case distance candidates are used instead.
+     */
+    private HeldKarpBound getLowerBound(DistanceMatrix graph, EvaluationCounter counter) {
+        var current = lowerBound;
+        if (current == null || current.getGraph() != graph) {
+            current = HeldKarpBound.compute(graph, HeldKarpBound.DEFAULT_ITERATION_LIMIT, counter);
+            if (current.isComplete()) {
+                lowerBound = current;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * State of a single run, the journal records every applied move so that a failed kick can be rolled back.
+     */
+    private class Search {
+        private final DistanceMatrix graph;
+        private final Tour tour;
+        private final NeighbourLists candidates;
+        private final EvaluationCounter counter;
+        private final int[] queue;
+        private final boolean[] queued;
+        private final int[] added;
+        private final int[] cuts = new int[2];
+        private int head;
+        private int count;
+        private int[] journal = new int[64];
+        private int journalSize;
+        private int addedCount;
+
+        Search(DistanceMatrix graph, Tour tour, NeighbourLists candidates, EvaluationCounter counter) {
+            this.graph = graph;
+            this.tour = tour;
+            this.candidates = candidates;
+            this.counter = counter;
+            this.queue = new int[graph.size()];
+            this.queued = new boolean[graph.size()];
+            this.added = new int[2 * maxDepth];
+        }
+
+        double run() {
+            int node = 0;
+            for (int i = 0; i < graph.size(); i++) {
+                push(node);
+                node = tour.next(node);
+            }
+            double delta = -optimize();
+            for (int kick = 0; kick < kickLimit && !counter.isExpired(); kick++) {
+                journalSize = 0;
+                var kickDelta = kick() - optimize();
+                if (kickDelta < -EPSILON) {
+                    delta += kickDelta;
+                } else {
+                    while (journalSize > 0) {
+                        undo();
+                    }
+                }
+            }
+            return delta;
+        }
+
+        /**
+         * Runs improvement steps from queued nodes until the queue is empty, returns the total gain.
+         */
+        private double optimize() {
+            double total = 0;
+            while (count > 0) {
+                int t1 = pop();
+                int mark = journalSize;
+                var gain = step(t1, tour.next(t1));
+                if (gain <= EPSILON) {
+                    gain = step(t1, tour.prev(t1));
+                }
+                if (gain > EPSILON) {
+                    total += gain;
+                    for (int i = mark; i < journalSize; i++) {
+                        push(journal[i]);
+                    }
+                }
+            }
+            return total;
+        }
+
+        /**
+         * One variable depth move that removes (t1, t2) first, returns the gain of the moves kept.
+         */
+        private double step(int t1, int t2) {
+            int mark = journalSize;
+            addedCount = 0;
+            double gain = graph.getDistance(t1, t2);
+            double bestGain = 0;
+            int bestSize = mark;
+            for (int depth = 0; depth < maxDepth; depth++) {
+                boolean forward = tour.next(t1) == t2;
+                int bestT3 = -1;
+                int bestT4 = -1;
+                double bestValue = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < candidates.k(); i++) {
+                    int t3 = candidates.get(t2, i);
+                    double partial = gain - graph.getDistance(t2, t3);
+                    if (partial <= EPSILON) {
+                        break;
+                    }
+                    int t4 = forward ? tour.prev(t3) : tour.next(t3);
+                    if (t3 == t1 || t4 == t2 || isAdded(t4, t3)) {
+                        continue;
+                    }
+                    double value = partial + graph.getDistance(t4, t3);
+                    if (value > bestValue) {
+                        bestValue = value;
+                        bestT3 = t3;
+                        bestT4 = t4;
+                    }
+                }
+                if (bestT3 == -1) {
+                    break;
+                }
+                move(t1, t2, bestT4, bestT3);
+                record(t1, t2, bestT4, bestT3);
+                added[addedCount++] = t2;
+                added[addedCount++] = bestT3;
+                gain = bestValue;
+                var closed = gain - graph.getDistance(bestT4, t1);
+                if (closed > bestGain + EPSILON) {
+                    bestGain = closed;
+                    bestSize = journalSize;
+                }
+                t2 = bestT4;
+            }
+            while (journalSize > bestSize) {
+                undo();
+            }
+            return bestGain;
+        }
+
+        /**
+         * Segment-local double bridge: A B C D becomes A C B D for short segments B and C after a random node, carried
+         * out as three reversals. The ends of B and C are two distinct positions among at most 2 * KICK_SEGMENT nodes
+         * following that node. Returns the cost change.
+         */
+        private double kick() {
+            int n = graph.size();
+            int limit = Math.min(KICK_SEGMENT, (n - 2) / 3);
+            int a = RandomGenerator.getRandomInt(n);
+            boolean forward = RandomGenerator.getRandomInt(2) == 0;
+            RandomGenerator.sampleDistinct(2 * limit, cuts);
+            int lengthB = Math.min(cuts[0], cuts[1]);
+            int lengthC = Math.max(cuts[0], cuts[1]) - lengthB - 1;
+            int b1 = forward ? tour.next(a) : tour.prev(a);
+            int b2 = walk(b1, lengthB, forward);
+            int c1 = forward ? tour.next(b2) : tour.prev(b2);
+            int c2 = walk(c1, lengthC, forward);
+            int d1 = forward ? tour.next(c2) : tour.prev(c2);
+
+            double delta = graph.getDistance(a, c1) + graph.getDistance(c2, b1) + graph.getDistance(b2, d1)
+                    - graph.getDistance(a, b1) - graph.getDistance(b2, c1) - graph.getDistance(c2, d1);
+            move(a, b1, c2, d1);
+            record(a, b1, c2, d1);
+            if (c2 != c1) {
+                move(a, c2, c1, b2);
+                record(a, c2, c1, b2);
+            }
+            if (b2 != b1) {
+                move(c2, b2, b1, d1);
+                record(c2, b2, b1, d1);
+            }
+            push(a);
+            push(b1);
+            push(b2);
+            push(c1);
+            push(c2);
+            push(d1);
+            return delta;
+        }
+
+        private int walk(int node, int steps, boolean forward) {
+            for (int i = 0; i < steps; i++) {
+                node = forward ? tour.next(node) : tour.prev(node);
+            }
+            return node;
+        }
+
+        /**
+         * Replaces (a, b) and (c, d) by (a, c) and (b, d), where b follows a and d follows c in the same direction.
+         */
+        private void move(int a, int b, int c, int d) {
+            if (tour.next(a) == b) {
+                tour.flip(a, b, c, d);
+            } else {
+                tour.flip(d, c, b, a);
+            }
+        }
+
+        private void record(int a, int b, int c, int d) {
+            if (journalSize + 4 > journal.length) {
+                journal = Arrays.copyOf(journal, 2 * journal.length);
+            }
+            journal[journalSize++] = a;
+            journal[journalSize++] = b;
+            journal[journalSize++] = c;
+            journal[journalSize++] = d;
+        }
+
+        /**
+         * Reverts the last recorded move, which left c following a and d following b.
+         */
+        private void undo() {
+            int d = journal[--journalSize];
+            int c = journal[--journalSize];
+            int b = journal[--journalSize];
+            int a = journal[--journalSize];
+            move(a, c, b, d);
+        }
+
+        private boolean isAdded(int x, int y) {
+            for (int i = 0; i < addedCount; i += 2) {
+                if ((added[i] == x && added[i + 1] == y) || (added[i] == y && added[i + 1] == x)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void push(int node) {
+            if (!queued[node]) {
+                queued[node] = true;
+                queue[(head + count++) % queue.length] = node;
+            }
+        }
+
+        private int pop() {
+            int node = queue[head];
+            head = (head + 1) % queue.length;
+            count--;
+            queued[node] = false;
+            return node;
+        }
+    }
+
+    @NoArgsConstructor
+    public static class Builder {
+        private int neighbourCount = NeighbourLists.DEFAULT_SIZE;
+        private int maxDepth = 50;
+        private int kickLimit = 10000;
+        private long timeLimitMillis = 0;
+        private boolean alphaCandidates = false;
+
+        public Builder setNeighbourCount(int neighbourCount) {
+            this.neighbourCount = neighbourCount;
+            return this;
+        }
+
+        /**
+         * Maximum number of 2-opt moves chained into a single improvement step.
+         */
+        public Builder setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * Number of double bridge kicks tried after the first local optimum, 0 stops at that optimum.
+         */
+        public Builder setKickLimit(int kickLimit) {
+            this.kickLimit = kickLimit;
+            return this;
+        }
+
+        /**
+         * Wall clock limit in milliseconds for computing the bound of alpha candidates and for the kicks together, 0 means
+         * no limit.
+         */
+        public Builder setTimeLimitMillis(long timeLimitMillis) {
+            this.timeLimitMillis = timeLimitMillis;
+            return this;
+        }
+
+        /**
+         * Ranks candidates by alpha-nearness of the Held-Karp 1-tree instead of distance, which costs computing the
+         * bound once per instance.
+         */
+        public Builder setAlphaCandidates(boolean alphaCandidates) {
+            this.alphaCandidates = alphaCandidates;
+            return this;
+        }
+
+        public LinKernighan build() {
+            return new LinKernighan(this);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package org.genetic.alg;
+
+import lombok.Getter;
+import org.genetic.alg.entities.Path;
+import org.genetic.alg.entities.Tour;
+import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.NeighbourLists;
+
+/**
+ * First improvement 2-opt and Or-opt restricted to the K nearest neighbours of every node. Nodes whose surroundings
+ * did not change since they last failed to improve are skipped through a queue of don't-look bits, so a tour close
+ * to a local optimum is polished in roughly linear time. Or-opt moves of segments up to three nodes long are carried
+ * out as two or three 2-opt moves. Moves are flips of a {@link Tour}, an array tour or a two-level tour on large
+ * instances, which is loaded from the path and written back once the search ends.
+ */
+public class LocalSearch {
+    private static final int MAX_SEGMENT = 3;
+    private static final double EPSILON = 1e-9;
+
+    @Getter
+    private final DistanceMatrix graph;
+    private final NeighbourLists neighbours;
+    private final int moveBudget;
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * @param moveBudget maximum number of improving moves applied to a single tour
+     */
+    public LocalSearch(DistanceMatrix graph, int neighbourCount, int moveBudget) {
+        this.graph = graph;
+        this.neighbours = graph.getNeighbourLists(neighbourCount);
+        this.moveBudget = moveBudget;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(graph.size()));
+    }
+
+    /**
+     * Improves the tour in place and updates its cost incrementally, returns the number of moves applied.
+     */
+    public int improve(Path path) {
+        var state = scratch.get();
+        var nodes = path.getNodes();
+        if (nodes.length < 5) {
+            return 0;
+        }
+        state.tour.load(nodes);
+        state.delta = 0;
+        for (var node : nodes) {
+            state.push(node);
+        }
+
+        int moves = 0;
+        while (state.count > 0 && moves < moveBudget) {
+            int node = state.pop();
+            if (twoOpt(state, node) || orOpt(state, node)) {
+                moves++;
+                state.push(node);
+            }
+        }
+        state.clear();
+        if (moves > 0) {
+            state.tour.copyNodes(nodes);
+        }
+        GeneticOperatorHelper.applyDelta(path, state.delta, graph);
+        return moves;
+    }
+
+    private boolean twoOpt(Scratch state, int a) {
+        for (int direction = 0; direction < 2; direction++) {
+            boolean forward = direction == 0;
+            int b = forward ? state.tour.next(a) : state.tour.prev(a);
+            double removedAB = graph.getDistance(a, b);
+            for (int i = 0; i < neighbours.k(); i++) {
+                int c = neighbours.get(a, i);
+                double addedAC = graph.getDistance(a, c);
+                if (addedAC >= removedAB) {
+                    break;
+                }
+                int d = forward ? state.tour.next(c) : state.tour.prev(c);
+                if (c == b || d == a) {
+                    continue;
+                }
+                double gain = removedAB + graph.getDistance(c, d) - addedAC - graph.getDistance(b, d);
+                if (gain > EPSILON) {
+                    state.move(a, b, c, d);
+                    state.delta -= gain;
+                    state.push(a);
+                    state.push(b);
+                    state.push(c);
+                    state.push(d);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tries to move a segment starting or ending at the node next to one of its neighbours c, between c and either of
+     * its tour neighbours, in either orientation.
+     */
+    private boolean orOpt(Scratch state, int node) {
+        int n = state.tour.size();
+        for (int length = 1; length <= MAX_SEGMENT && length < n - 3; length++) {
+            for (int end = 0; end < 2; end++) {
+                int s = node;
+                int e = node;
+                for (int i = 1; i < length; i++) {
+                    if (end == 0) {
+                        e = state.tour.next(e);
+                    } else {
+                        s = state.tour.prev(s);
+                    }
+                }
+                int p = state.tour.prev(s);
+                int nx = state.tour.next(e);
+                double removed = graph.getDistance(p, s) + graph.getDistance(e, nx) - graph.getDistance(p, nx);
+                if (removed <= EPSILON) {
+                    continue;
+                }
+                for (int i = 0; i < neighbours.k(); i++) {
+                    int c = neighbours.get(node, i);
+                    if (graph.getDistance(node, c) >= removed) {
+                        break;
+                    }
+                    if (state.tour.between(s, c, e)) {
+                        continue;
+                    }
+                    // Insert between c and either of its tour neighbours, written as the forward edge (x, y)
+                    for (int side = 0; side < 2; side++) {
+                        int x = side == 0 ? c : state.tour.prev(c);
+                        int y = side == 0 ? state.tour.next(c) : c;
+                        if (y == p || state.tour.between(s, x, e) || state.tour.between(s, y, e)) {
+                            continue;
+                        }
+                        double kept = graph.getDistance(x, y);
+                        double reversed = graph.getDistance(x, e) + graph.getDistance(s, y) - kept;
+                        double same = graph.getDistance(x, s) + graph.getDistance(e, y) - kept;
+                        boolean keepOrientation = same < reversed;
+                        double gain = removed - Math.min(same, reversed);
+                        if (gain > EPSILON) {
+                            state.moveSegment(p, s, e, nx, x, y, keepOrientation);
+                            state.delta -= gain;
+                            state.push(p);
+                            state.push(s);
+                            state.push(e);
+                            state.push(nx);
+                            state.push(x);
+                            state.push(y);
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Per-thread tour and don't-look queue of a single tour being improved.
+     */
+    private static final class Scratch {
+        private final Tour tour;
+        private final int[] queue;
+        private final boolean[] queued;
+        private int head;
+        private int count;
+        private double delta;
+
+        private Scratch(int size) {
+            var nodes = new int[size];
+            for (int i = 0; i < size; i++) {
+                nodes[i] = i;
+            }
+            this.tour = Tour.of(nodes);
+            this.queue = new int[size];
+            this.queued = new boolean[size];
+        }
+
+        /**
+         * Replaces edges (a, b) and (c, d) by (a, c) and (b, d), where b follows a and d follows c in the same
+         * direction.
+         */
+        void move(int a, int b, int c, int d) {
+            if (tour.next(a) == b) {
+                tour.flip(a, b, c, d);
+            } else {
+                tour.flip(d, c, b, a);
+            }
+        }
+
+        /**
+         * Moves the segment s..e, preceded by p and followed by nx, between x and its successor y.
+         */
+        void moveSegment(int p, int s, int e, int nx, int x, int y, boolean keepOrientation) {
+            move(p, s, x, y);
+            if (x != nx) {
+                move(p, x, nx, e);
+            }
+            if (keepOrientation && s != e) {
+                move(x, e, s, y);
+            }
+        }
+
+        void push(int node) {
+            if (!queued[node]) {
+                queued[node] = true;
+                queue[(head + count++) % queue.length] = node;
+            }
+        }
+
+        int pop() {
+            int node = queue[head];
+            head = (head + 1) % queue.length;
+            count--;
+            queued[node] = false;
+            return node;
+        }
+
+        void clear() {
+            while (count > 0) {
+                pop();
+            }
+            head = 0;
+        }
+    }
+}
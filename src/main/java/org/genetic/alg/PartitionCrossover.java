@@ -0,0 +1,162 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.Path;
+import org.genetic.utils.entities.DistanceMatrix;
+
+/**
+ * Generalized partition crossover. Removing the edges shared by both parents splits the union graph into components.
+ * A component that the shared edges cross exactly twice is entered and left once by both tours, so either parent's
+ * path through it can be used, and the cheaper one is taken. The remaining components are inherited together from the
+ * parent that is cheaper on them, which keeps the child no worse than either parent.
+ */
+final class PartitionCrossover {
+    private PartitionCrossover() {
+    }
+
+    /**
+     * Writes the child into the given path, which must not be one of the parents.
+     */
+    static void crossover(Path parent1, Path parent2, DistanceMatrix graph, Path child) {
+        int n = graph.size();
+        var scratch = Scratch.get(n);
+        var nextA = scratch.nextA;
+        var prevA = scratch.prevA;
+        var nextB = scratch.nextB;
+        var prevB = scratch.prevB;
+        TourLinks.link(parent1.getNodes(), nextA, prevA);
+        TourLinks.link(parent2.getNodes(), nextB, prevB);
+
+        var parent = scratch.parent;
+        var crossings = scratch.crossings;
+        var costA = scratch.costA;
+        var costB = scratch.costB;
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            crossings[v] = 0;
+            costA[v] = 0;
+            costB[v] = 0;
+        }
+        boolean differs = false;
+        for (int v = 0; v < n; v++) {
+            if (!isEdge(nextB, prevB, v, nextA[v])) {
+                scratch.union(v, nextA[v]);
+                differs = true;
+            }
+            if (!isEdge(nextA, prevA, v, nextB[v])) {
+                scratch.union(v, nextB[v]);
+            }
+        }
+        if (!differs) {
+            child.copyFrom(parent1);
+            return;
+        }
+
+        for (int v = 0; v < n; v++) {
+            int root = scratch.find(v);
+            int a = nextA[v];
+            if (isEdge(nextB, prevB, v, a)) {
+                int other = scratch.find(a);
+                if (other != root) {
+                    crossings[root]++;
+                    crossings[other]++;
+                }
+            } else {
+                costA[root] += graph.getDistance(v, a);
+            }
+            int b = nextB[v];
+            if (!isEdge(nextA, prevA, v, b)) {
+                costB[root] += graph.getDistance(v, b);
+            }
+        }
+
+        double restA = 0;
+        double restB = 0;
+        for (int v = 0; v < n; v++) {
+            if (parent[v] == v && crossings[v] > 2) {
+                restA += costA[v];
+                restB += costB[v];
+            }
+        }
+        boolean restFromB = restB < restA;
+        var takeB = scratch.takeB;
+        double delta = 0;
+        for (int v = 0; v < n; v++) {
+            if (parent[v] == v) {
+                takeB[v] = crossings[v] > 2 ? restFromB : costB[v] < costA[v];
+                delta += takeB[v] ? costB[v] - costA[v] : 0;
+            }
+        }
+
+        var link0 = scratch.link0;
+        var link1 = scratch.link1;
+        for (int v = 0; v < n; v++) {
+            boolean fromB = takeB[scratch.find(v)];
+            link0[v] = fromB ? nextB[v] : nextA[v];
+            link1[v] = fromB ? prevB[v] : prevA[v];
+        }
+        TourLinks.toNodes(link0, link1, child.getNodes());
+        child.setCost(parent1.getCost());
+        GeneticOperatorHelper.applyDelta(child, delta, graph);
+    }
+
+    private static boolean isEdge(int[] next, int[] prev, int x, int y) {
+        return next[x] == y || prev[x] == y;
+    }
+
+    /**
+     * Per-thread buffers indexed by node, parent holds the union-find forest of the components.
+     */
+    private static final class Scratch {
+        private static final ThreadLocal<Scratch> local = new ThreadLocal<>();
+        private final int[] nextA;
+        private final int[] prevA;
+        private final int[] nextB;
+        private final int[] prevB;
+        private final int[] parent;
+        private final int[] crossings;
+        private final double[] costA;
+        private final double[] costB;
+        private final boolean[] takeB;
+        private final int[] link0;
+        private final int[] link1;
+
+        private Scratch(int size) {
+            this.nextA = new int[size];
+            this.prevA = new int[size];
+            this.nextB = new int[size];
+            this.prevB = new int[size];
+            this.parent = new int[size];
+            this.crossings = new int[size];
+            this.costA = new double[size];
+            this.costB = new double[size];
+            this.takeB = new boolean[size];
+            this.link0 = new int[size];
+            this.link1 = new int[size];
+        }
+
+        static Scratch get(int size) {
+            var scratch = local.get();
+            if (scratch == null || scratch.parent.length != size) {
+                scratch = new Scratch(size);
+                local.set(scratch);
+            }
+            return scratch;
+        }
+
+        int find(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]];
+                x = parent[x];
+            }
+            return x;
+        }
+
+        void union(int x, int y) {
+            int rootX = find(x);
+            int rootY = find(y);
+            if (rootX != rootY) {
+                parent[rootY] = rootX;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Two population buffers of preallocated tours. The next generation is written into the spare buffer while the current
+ * one is read, then the roles swap, so once both buffers exist a generation allocates no tours. The index over the
+ * current buffer, the selection tables, the cost cache and the set of tour hashes used to find duplicates are kept here
+ * as well and reused every generation.
+ */
+final class PopulationArena {
+    private final PopulationIndex index;
+    private List<Path> current;
+    private List<Path> next;
+    private final TourHash hasher;
+    private final CostCache costCache;
+    private SelectionEngine selection;
+    private long[] seen;
+
+    /**
+     * Takes over the initial population as the current buffer, a cost cache size of 0 disables the cache.
+     */
+    PopulationArena(List<Path> initial, int nodeCount, int costCacheSize) {
+        this.current = new ArrayList<>(initial);
+        this.next = new ArrayList<>(initial.size());
+        for (int i = 0; i < initial.size(); i++) {
+            next.add(new Path(new int[nodeCount], 0));
+        }
+        this.index = PopulationIndex.of(current);
+        this.hasher = new TourHash(nodeCount);
+        this.costCache = costCacheSize > 0 ? new CostCache(costCacheSize, hasher) : null;
+    }
+
+    PopulationIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Slots of the generation being built, only valid until the next swap.
+     */
+    List<Path> getNext() {
+        return next;
+    }
+
+    /**
+     * Hasher of the tours of this population, shared by the cost cache, the mutations and the duplicate check.
+     */
+    TourHash getHasher() {
+        return hasher;
+    }
+
+    /**
+     * Shared by all workers, null when disabled.
+     */
+    CostCache getCostCache() {
+        return costCache;
+    }
+
+    SelectionEngine prepareSelection(GeneticAlgorithm genetic) {
+        selection = selection == null
+                ? SelectionEngine.prepare(genetic.getSelType(), index, genetic.getTournamentSize())
+                : selection.reset(genetic.getSelType(), index, genetic.getTournamentSize());
+        return selection;
+    }
+
+    /**
+     * Forgets the tours recorded by {@link #markSeen}.
+     */
+    void clearSeen() {
+        if (seen == null) {
+            seen = new long[Integer.highestOneBit(Math.max(1, 2 * next.size() - 1)) << 1];
+        } else {
+            Arrays.fill(seen, 0);
+        }
+    }
+
+    /**
+     * Records a tour hash in an open addressing set sized for twice the population, returns false when it was recorded
+     * before. Zero marks an empty bucket, so a zero hash is stored as one.
+     */
+    boolean markSeen(long hash) {
+        hash = hash == 0 ? 1 : hash;
+        int mask = seen.length - 1;
+        for (int bucket = TourHash.bucket(hash, Integer.numberOfTrailingZeros(seen.length)); ; bucket = (bucket + 1) & mask) {
+            if (seen[bucket] == hash) {
+                return false;
+            }
+            if (seen[bucket] == 0) {
+                seen[bucket] = hash;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Makes the completed next generation current and indexes it.
+     */
+    void swap() {
+        var filled = next;
+        next = current;
+        current = filled;
+        index.reset(current);
+    }
+}
@@ -0,0 +1,273 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.Path;
+
+import java.util.List;
+
+/**
+ * Costs of a population copied into a primitive array, built in a single pass that also finds the best and worst
+ * member and the mean cost. Elites are found by quickselect over an index array, O(P) on average, and only the
+ * selected elites are sorted, so the population itself is never reordered. A full ranking is computed lazily for the
+ * selection schemes that need one.
+ */
+public final class PopulationIndex {
+    private static final int INSERTION_SORT_SIZE = 16;
+
+    private List<Path> population;
+    private final double[] costs;
+    private final int[] index;
+    private double sum;
+    private int best;
+    private int worst;
+    private boolean sorted;
+    private boolean ranked;
+    private int lowerBound;
+    private int upperBound;
+
+    private PopulationIndex(List<Path> population) {
+        this.costs = new double[population.size()];
+        this.index = new int[population.size()];
+        reset(population);
+    }
+
+    public static PopulationIndex of(List<Path> population) {
+        if (population.isEmpty()) {
+            throw new IllegalStateException("Population is empty");
+        }
+        return new PopulationIndex(population);
+    }
+
+    /**
+     * Indexes another population of the same size, reusing the arrays.
+     */
+    void reset(List<Path> population) {
+        if (population.size() != costs.length) {
+            throw new IllegalStateException("Population size " + population.size() + " differs from " + costs.length);
+        }
+        this.population = population;
+        this.sum = 0;
+        this.best = 0;
+        this.worst = 0;
+        this.sorted = true;
+        for (int i = 0; i < costs.length; i++) {
+            var cost = population.get(i).getCost();
+            costs[i] = cost;
+            index[i] = i;
+            sum += cost;
+            if (cost < costs[best]) {
+                best = i;
+            }
+            if (cost > costs[worst]) {
+                worst = i;
+            }
+            if (i > 0 && cost < costs[i - 1]) {
+                sorted = false;
+            }
+        }
+        this.ranked = sorted;
+    }
+
+    public int size() {
+        return costs.length;
+    }
+
+    public Path get(int member) {
+        return population.get(member);
+    }
+
+    public double cost(int member) {
+        return costs[member];
+    }
+
+    public List<Path> getPopulation() {
+        return population;
+    }
+
+    public Path getBest() {
+        return population.get(best);
+    }
+
+    public double getBestCost() {
+        return costs[best];
+    }
+
+    public double getWorstCost() {
+        return costs[worst];
+    }
+
+    public double getMean() {
+        return sum / costs.length;
+    }
+
+    /**
+     * True when the members are already in ascending cost order, so a member's position is its rank.
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * Replaces a member and updates the statistics, the population is scanned again only when its best member got worse
+     * or its worst member got better.
+     */
+    public void set(int member, Path path) {
+        var cost = path.getCost();
+        var previous = costs[member];
+        population.set(member, path);
+        sum += cost - previous;
+        costs[member] = cost;
+        if (cost < costs[best]) {
+            best = member;
+        } else if (member == best && cost > previous) {
+            best = find(-1);
+        }
+        if (cost > costs[worst]) {
+            worst = member;
+        } else if (member == worst && cost < previous) {
+            worst = find(1);
+        }
+        sorted = false;
+        ranked = false;
+    }
+
+    /**
+     * Members of the given number of lowest costs, best first.
+     */
+    public int[] elites(int count) {
+        count = Math.max(0, Math.min(count, costs.length));
+        if (!ranked && count > 0) {
+            select(count - 1);
+            sort(0, count - 1);
+        }
+        var elites = new int[count];
+        System.arraycopy(index, 0, elites, 0, count);
+        return elites;
+    }
+
+    /**
+     * Members of the given number of highest costs, in no particular order.
+     */
+    public int[] worst(int count) {
+        count = Math.max(0, Math.min(count, costs.length));
+        if (!ranked && count > 0) {
+            select(costs.length - count);
+        }
+        var members = new int[count];
+        System.arraycopy(index, costs.length - count, members, 0, count);
+        return members;
+    }
+
+    /**
+     * Maps a rank to a member, sorting the whole index on first use.
+     */
+    public int byRank(int rank) {
+        if (!ranked) {
+            sort(0, costs.length - 1);
+            ranked = true;
+        }
+        return index[rank];
+    }
+
+    /**
+     * Ensures the ranking used by {@link #byRank} is computed, so that concurrent readers only read it.
+     */
+    public void rank() {
+        byRank(0);
+    }
+
+    /**
+     * Position of the highest cost times the sign, so -1 finds the best member and 1 the worst.
+     */
+    private int find(int sign) {
+        int found = 0;
+        for (int i = 1; i < costs.length; i++) {
+            if (sign * costs[i] > sign * costs[found]) {
+                found = i;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Quickselect, leaves the member of the given rank at that position with cheaper members before it and more
+     * expensive ones after it.
+     */
+    private void select(int rank) {
+        int lo = 0;
+        int hi = index.length - 1;
+        while (hi - lo > INSERTION_SORT_SIZE) {
+            partition(lo, hi);
+            if (rank < lowerBound) {
+                hi = lowerBound - 1;
+            } else if (rank > upperBound) {
+                lo = upperBound + 1;
+            } else {
+                return;
+            }
+        }
+        insertionSort(lo, hi);
+    }
+
+    private void sort(int lo, int hi) {
+        while (hi - lo > INSERTION_SORT_SIZE) {
+            partition(lo, hi);
+            int lower = lowerBound;
+            int upper = upperBound;
+            // Recurse into the smaller side to bound the stack depth
+            if (lower - lo < hi - upper) {
+                sort(lo, lower - 1);
+                lo = upper + 1;
+            } else {
+                sort(upper + 1, hi);
+                hi = lower - 1;
+            }
+        }
+        insertionSort(lo, hi);
+    }
+
+    /**
+     * Three-way partition around the median of three, leaves the range holding members equal to the pivot in
+     * lowerBound and upperBound, which keeps populations full of equal costs linear.
+     */
+    private void partition(int lo, int hi) {
+        int mid = (lo + hi) >>> 1;
+        double a = costs[index[lo]];
+        double b = costs[index[mid]];
+        double c = costs[index[hi]];
+        double pivot = a < b ? (b < c ? b : Math.max(a, c)) : (a < c ? a : Math.max(b, c));
+        int lt = lo;
+        int gt = hi;
+        int i = lo;
+        while (i <= gt) {
+            double cost = costs[index[i]];
+            if (cost < pivot) {
+                swap(lt++, i++);
+            } else if (cost > pivot) {
+                swap(i, gt--);
+            } else {
+                i++;
+            }
+        }
+        lowerBound = lt;
+        upperBound = gt;
+    }
+
+    private void insertionSort(int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            int member = index[i];
+            double cost = costs[member];
+            int j = i - 1;
+            while (j >= lo && costs[index[j]] > cost) {
+                index[j + 1] = index[j];
+                j--;
+            }
+            index[j + 1] = member;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int tmp = index[i];
+        index[i] = index[j];
+        index[j] = tmp;
+    }
+}
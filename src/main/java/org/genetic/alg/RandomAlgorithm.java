@@ -1,27 +1,46 @@
 package org.genetic.alg;
 
-import org.genetic.alg.entities.Path;
 import org.genetic.utils.RandomGenerator;
+import org.genetic.utils.entities.CostStatistics;
 import org.genetic.utils.entities.DistanceMatrix;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 public class RandomAlgorithm {
-    public static List<Path> execute(DistanceMatrix graph) {
-        var population = new ArrayList<Path>();
-        for (int i = 0; i < 10000; i++) {
-            Path path = new Path();
-            int currNode;
-            List<Integer> usedNodes = new ArrayList<>();
-            while (usedNodes.size() < graph.size()) {
-                currNode = RandomGenerator.getRandomInt(graph.size(), usedNodes);
-                usedNodes.add(currNode);
-                path.addNode(currNode);
-            }
-            graph.setPathCost(path);
-            population.add(path);
-        }
-        return population;
+    public static final int DEFAULT_SAMPLES = 10000;
+
+    public static CostStatistics execute(DistanceMatrix graph) {
+        return execute(graph, DEFAULT_SAMPLES);
+    }
+
+    /**
+     * Evaluates the given number of uniformly random tours in parallel chunks. Every chunk reshuffles a single tour
+     * array with its own random stream and only keeps running statistics, so memory does not grow with samples.
+     */
+    public static CostStatistics execute(DistanceMatrix graph, long samples) {
+        int chunks = (int) Math.max(1, Math.min(samples, 4L * ForkJoinPool.getCommonPoolParallelism()));
+        var streams = IntStream.range(0, chunks)
+                .mapToObj(i -> RandomGenerator.split())
+                .toList();
+
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    long quota = samples / chunks + (chunk < samples % chunks ? 1 : 0);
+                    var statistics = new CostStatistics();
+                    int[] nodes = IntStream.range(0, graph.size()).toArray();
+                    RandomGenerator.bind(streams.get(chunk));
+                    try {
+                        for (long i = 0; i < quota; i++) {
+                            RandomGenerator.shuffle(nodes);
+                            statistics.add(graph.getPathCost(nodes));
+                        }
+                    } finally {
+                        RandomGenerator.unbind();
+                    }
+                    return statistics;
+                })
+                .collect(CostStatistics::new, CostStatistics::merge, CostStatistics::merge);
     }
 }
@@ -0,0 +1,311 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.Path;
+import org.genetic.alg.entities.SelectionType;
+import org.genetic.utils.RandomGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parent selection prepared once per generation. Tournaments draw k distinct entrants with Floyd's algorithm and
+ * compare their costs, rank selection gets the exact linear ranking weights from a contest of two, roulette draws from
+ * Vose's alias table, O(P) to build and O(1) per draw, and stochastic universal sampling hands out shuffled winners
+ * picked with evenly spaced pointers, both weighting a tour by the inverse of its cost. None of these sorts the
+ * population. Tournaments with replacement compare the costs of small samples directly, large ones only sample the rank
+ * of the winner, which sorts the population once per generation unless it is already sorted. Draws allocate nothing.
+ * Workers drawing at once take a {@link Slice} each, {@link #select()} draws through a slice over the whole population
+ * and is meant for a single thread. An engine can be reset for the next generation, which reuses its tables.
+ */
+public class SelectionEngine {
+    private SelectionType type;
+    private PopulationIndex population;
+    private int tournamentSize;
+    private boolean direct;
+    private double[] weights;
+    private double sampleWeight;
+    private double[] probability;
+    private int[] alias;
+    private int[] worklist;
+    private int[] winners;
+    private Slice[] slices = new Slice[0];
+    private Slice whole;
+
+    private SelectionEngine() {
+    }
+
+    public static SelectionEngine prepare(SelectionType type, List<Path> population, int tournamentSize) {
+        return prepare(type, PopulationIndex.of(population), tournamentSize);
+    }
+
+    /**
+     * Large tournaments with replacement rank the population through the index unless it is already sorted.
+     */
+    public static SelectionEngine prepare(SelectionType type, PopulationIndex population, int tournamentSize) {
+        return new SelectionEngine().reset(type, population, tournamentSize);
+    }
+
+    /**
+     * Prepares this engine for another population in place, no draws may be made from it while it is reset.
+     */
+    public SelectionEngine reset(SelectionType type, PopulationIndex population, int tournamentSize) {
+        int size = population.size();
+        tournamentSize = Math.max(1, Math.min(tournamentSize, size));
+        this.type = type;
+        this.population = population;
+        this.tournamentSize = tournamentSize;
+        this.direct = false;
+        switch (type) {
+            case Tournament, Rank -> {
+            }
+            case TournamentWithReplacement -> {
+                // Drawing k entrants beats ranking P members while k stays below log2(P)
+                direct = !population.isSorted() && tournamentSize < 32 - Integer.numberOfLeadingZeros(size);
+                if (!direct) {
+                    population.rank();
+                }
+            }
+            case Roulette -> buildAliasTable(inverseCostWeights(population));
+            case StochasticUniversal -> buildUniversalSample(inverseCostWeights(population));
+            default -> throw new UnsupportedOperationException("Unsupported SelectionType: " + type);
+        }
+        whole = slice(whole, 0, size);
+        return this;
+    }
+
+    public Path select() {
+        return whole.select();
+    }
+
+    /**
+     * Draws for the worker with the given number, which fills the slots from start up to, but not including, end. The
+     * slice is reused by the next generation, so it must not be kept once the generation is bred.
+     */
+    public Slice slice(int worker, int start, int end) {
+        if (worker >= slices.length) {
+            slices = Arrays.copyOf(slices, worker + 1);
+        }
+        slices[worker] = slice(slices[worker], start, end);
+        return slices[worker];
+    }
+
+    private Slice slice(Slice slice, int start, int end) {
+        if (slice == null) {
+            slice = new Slice();
+        }
+        slice.start = start;
+        slice.end = end;
+        slice.next = start;
+        if (slice.entrants.length != tournamentSize) {
+            slice.entrants = new int[tournamentSize];
+        }
+        return slice;
+    }
+
+    private Path draw(Slice slice) {
+        return switch (type) {
+            case Tournament -> population.get(drawDistinctEntrants(slice));
+            case Rank -> population.get(drawLinearRank());
+            case TournamentWithReplacement -> population.get(direct
+                    ? drawEntrants()
+                    : population.byRank(drawTournamentWithReplacement()));
+            case Roulette -> population.get(drawAlias());
+            case StochasticUniversal -> population.get(drawUniversal(slice));
+            default -> throw new UnsupportedOperationException("Unsupported SelectionType: " + type);
+        };
+    }
+
+    /**
+     * Winning rank of a tournament between k entrants drawn with replacement, P(winner >= i) = ((P - i) / P)^k inverted
+     * in closed form.
+     */
+    private int drawTournamentWithReplacement() {
+        int size = population.size();
+        var rank = (int) (size * (1.0 - Math.pow(RandomGenerator.randomDouble(), 1.0 / tournamentSize)));
+        return Math.min(rank, size - 1);
+    }
+
+    /**
+     * Best of k distinct entrants, drawn into the slice's buffer with a single draw each.
+     */
+    private int drawDistinctEntrants(Slice slice) {
+        var entrants = slice.entrants;
+        RandomGenerator.sampleDistinct(population.size(), entrants);
+        int winner = entrants[0];
+        for (int i = 1; i < entrants.length; i++) {
+            if (population.cost(entrants[i]) < population.cost(winner)) {
+                winner = entrants[i];
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * Linear ranking without a ranking. The first entrant is uniform over the P members, the second is drawn from P + 1
+     * values of which the last means no rival, and the better one wins. Rank i (0 best) then wins with probability
+     * 2 (P - i) / (P (P + 1)), exactly the weights P down to 1. Equal costs are ordered by position, so that the members
+     * form a strict order.
+     */
+    private int drawLinearRank() {
+        int size = population.size();
+        int first = RandomGenerator.getRandomInt(size);
+        int second = RandomGenerator.getRandomInt(size + 1);
+        if (second == size) {
+            return first;
+        }
+        var firstCost = population.cost(first);
+        var secondCost = population.cost(second);
+        return secondCost < firstCost || secondCost == firstCost && second < first ? second : first;
+    }
+
+    /**
+     * Best of k entrants drawn uniformly with replacement.
+     */
+    private int drawEntrants() {
+        int size = population.size();
+        int winner = RandomGenerator.getRandomInt(size);
+        for (int i = 1; i < tournamentSize; i++) {
+            int entrant = RandomGenerator.getRandomInt(size);
+            if (population.cost(entrant) < population.cost(winner)) {
+                winner = entrant;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * Fitness as the inverse of the cost, a tour of half the cost gets twice the share. Scaled by the best cost, so the
+     * weights stay within (0, 1] even for tours of cost 0.
+     */
+    private double[] inverseCostWeights(PopulationIndex population) {
+        var weights = weights(population.size());
+        var best = population.getBestCost();
+        for (int i = 0; i < weights.length; i++) {
+            var cost = population.cost(i);
+            weights[i] = cost > 0 ? best / cost : 1.0;
+        }
+        return weights;
+    }
+
+    private double[] weights(int size) {
+        if (weights == null || weights.length != size) {
+            weights = new double[size];
+        }
+        return weights;
+    }
+
+    /**
+     * Vose's construction, the weights are scaled in place and the small and large stacks share one work list,
+     * growing from its two ends.
+     */
+    private void buildAliasTable(double[] weights) {
+        int size = weights.length;
+        if (probability == null || probability.length != size) {
+            probability = new double[size];
+            alias = new int[size];
+            worklist = new int[size];
+        }
+        double sum = 0;
+        for (var weight : weights) {
+            sum += weight;
+        }
+        int smallCount = 0;
+        int largeStart = size;
+        for (int i = 0; i < size; i++) {
+            weights[i] = sum > 0 ? weights[i] * size / sum : 1.0;
+            if (weights[i] < 1.0) {
+                worklist[smallCount++] = i;
+            } else {
+                worklist[--largeStart] = i;
+            }
+        }
+        while (smallCount > 0 && largeStart < size) {
+            int less = worklist[--smallCount];
+            int more = worklist[largeStart++];
+            probability[less] = weights[less];
+            alias[less] = more;
+            weights[more] = weights[more] + weights[less] - 1.0;
+            if (weights[more] < 1.0) {
+                worklist[smallCount++] = more;
+            } else {
+                worklist[--largeStart] = more;
+            }
+        }
+        // Leftovers are 1 up to rounding error
+        while (largeStart < size) {
+            probability[worklist[largeStart++]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[worklist[--smallCount]] = 1.0;
+        }
+    }
+
+    private int drawAlias() {
+        int column = RandomGenerator.getRandomInt(probability.length);
+        return RandomGenerator.randomDouble() < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Spins the wheel once for all P slots, the weights are kept for the slices that use up their range of the sample.
+     */
+    private void buildUniversalSample(double[] weights) {
+        int size = weights.length;
+        double sum = 0;
+        for (var weight : weights) {
+            sum += weight;
+        }
+        sampleWeight = sum;
+        if (winners == null || winners.length != size) {
+            winners = new int[size];
+        }
+        spin(0, size);
+    }
+
+    /**
+     * Fills winners from start up to end with a single spin of end - start evenly spaced pointers, in shuffled order.
+     */
+    private void spin(int start, int end) {
+        int size = weights.length;
+        double step = sampleWeight / (end - start);
+        double pointer = RandomGenerator.randomDouble() * step;
+        double reach = weights[0];
+        int index = 0;
+        for (int i = start; i < end; i++) {
+            while (reach < pointer && index < size - 1) {
+                reach += weights[++index];
+            }
+            winners[i] = index;
+            pointer += step;
+        }
+        RandomGenerator.shuffle(winners, start, end);
+    }
+
+    /**
+     * Next winner of the slice's range of the sample. A range that is used up, breeding draws about two parents per
+     * slot, is spun again from the calling worker's stream instead of replaying the same pairs.
+     */
+    private int drawUniversal(Slice slice) {
+        if (slice.next == slice.end) {
+            spin(slice.start, slice.end);
+            slice.next = slice.start;
+        }
+        return winners[slice.next++];
+    }
+
+    /**
+     * Draw state of a single worker.
+     */
+    public final class Slice {
+        private int start;
+        private int end;
+        private int next;
+        private int[] entrants = new int[0];
+
+        private Slice() {
+        }
+
+        public Path select() {
+            return draw(this);
+        }
+    }
+}
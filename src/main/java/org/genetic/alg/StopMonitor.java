@@ -0,0 +1,60 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.StopReason;
+import org.genetic.utils.entities.DistanceMatrix;
+
+/**
+ * Per generation stop conditions of a single run: wall clock budget, target cost, optimality gap over the Held-Karp
+ * bound and stagnation of the best cost, measured both in generations and in evaluations since the last improvement.
+ * Generation and evaluation limits are enforced by the caller and by the {@link EvaluationCounter}.
+ */
+final class StopMonitor {
+    private final int stagnationGenerations;
+    private final long stagnationEvaluations;
+    private final double targetCost;
+    private final double gapCost;
+    private double bestCost = Double.POSITIVE_INFINITY;
+    private int improvedGeneration;
+    private long improvedEvaluations;
+
+    /**
+     * Computes the lower bound of the instance when an optimality gap is configured, within the time budget of the
+     * counter, so that the time spent on it counts towards the run. A bound cut short disables the gap condition.
+     */
+    StopMonitor(GeneticAlgorithm genetic, DistanceMatrix graph, EvaluationCounter counter) {
+        this.stagnationGenerations = genetic.getStagnationGenerations();
+        this.stagnationEvaluations = genetic.getStagnationEvaluations();
+        this.targetCost = genetic.getTargetCost();
+        this.gapCost = genetic.getOptimalityGap() > 0
+                ? genetic.getLowerBound(graph, counter).getBound() * (1 + genetic.getOptimalityGap())
+                : 0;
+    }
+
+    /**
+     * Returns the reason to stop after the given generation, or null to keep going.
+     */
+    StopReason check(int generation, double currentBest, EvaluationCounter counter) {
+        long evaluations = counter.getCount();
+        if (currentBest < bestCost) {
+            bestCost = currentBest;
+            improvedGeneration = generation;
+            improvedEvaluations = evaluations;
+        }
+        if (targetCost > 0 && bestCost <= targetCost) {
+            return StopReason.TargetCost;
+        }
+        if (gapCost > 0 && bestCost <= gapCost) {
+            return StopReason.OptimalityGap;
+        }
+        if (counter.isExpired()) {
+            return StopReason.TimeLimit;
+        }
+        if (stagnationGenerations > 0 && generation - improvedGeneration >= stagnationGenerations) {
+            return StopReason.Stagnation;
+        }
+        if (stagnationEvaluations > 0 && evaluations - improvedEvaluations >= stagnationEvaluations) {
+            return StopReason.Stagnation;
+        }
+        return null;
+    }
+}
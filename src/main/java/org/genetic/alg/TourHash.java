@@ -0,0 +1,98 @@
+package org.genetic.alg;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hash of a tour over its undirected edges. Every node gets a fixed random key, an edge hashes to the product
+ * of the keys of its ends and a tour to the xor of its edge hashes, so the hash ignores where the tour starts and which
+ * way it runs. A move that replaces a few edges updates the hash by xor-ing out the old edges and in the new ones.
+ * The low bits of a product depend only on the low bits of the keys, so tables should index by the high bits.
+ */
+public final class TourHash {
+    private static final long KEY_SEED = 0x5DEECE66DL;
+
+    private final long[] keys;
+
+    /**
+     * Hash for tours of the given number of nodes. Keys come from a fixed seed, so hashers of the same size agree and
+     * tours keep valid hashes when they move between populations.
+     */
+    public TourHash(int size) {
+        // Fixed seed, so that hashes are stable across runs and drawing keys leaves the random streams untouched
+        var random = new SplittableRandom(KEY_SEED);
+        this.keys = new long[size];
+        for (int node = 0; node < size; node++) {
+            keys[node] = random.nextLong();
+        }
+    }
+
+    /**
+     * Hash of the undirected edge, a single multiplication keeps hashing a tour cheaper than evaluating it.
+     */
+    public long edge(int x, int y) {
+        return keys[x] * keys[y];
+    }
+
+    public long hash(int[] nodes) {
+        int last = nodes.length - 1;
+        long hash = edge(nodes[last], nodes[0]);
+        for (int i = 0; i < last; i++) {
+            hash ^= edge(nodes[i], nodes[i + 1]);
+        }
+        return hash;
+    }
+
+    /**
+     * Hash of the tour after the nodes at positions i and j are swapped, computed before the swap. Up to four edges
+     * change, fewer when the positions are adjacent.
+     */
+    public long swap(long hash, int[] nodes, int i, int j) {
+        int n = nodes.length;
+        int before = (i - 1 + n) % n;
+        int beforeOther = (j - 1 + n) % n;
+        hash = swapEdge(hash, nodes, before, i, j);
+        if (i != before) {
+            hash = swapEdge(hash, nodes, i, i, j);
+        }
+        if (beforeOther != before && beforeOther != i) {
+            hash = swapEdge(hash, nodes, beforeOther, i, j);
+        }
+        if (j != before && j != i && j != beforeOther) {
+            hash = swapEdge(hash, nodes, j, i, j);
+        }
+        return hash;
+    }
+
+    /**
+     * Hash of the tour after the positions from i to j are reversed, computed before the reversal. Only the two edges
+     * at the ends of the segment change, none when the segment is the whole tour.
+     */
+    public long reverse(long hash, int[] nodes, int i, int j) {
+        int n = nodes.length;
+        if (j - i + 1 >= n) {
+            return hash;
+        }
+        int previous = nodes[(i - 1 + n) % n];
+        int next = nodes[(j + 1) % n];
+        return hash ^ edge(previous, nodes[i]) ^ edge(nodes[j], next) ^ edge(previous, nodes[j]) ^ edge(nodes[i], next);
+    }
+
+    /**
+     * Replaces the edge leaving position p by the one it becomes once the nodes at i and j are swapped.
+     */
+    private long swapEdge(long hash, int[] nodes, int p, int i, int j) {
+        int q = (p + 1) % nodes.length;
+        return hash ^ edge(nodes[p], nodes[q]) ^ edge(swapped(nodes, p, i, j), swapped(nodes, q, i, j));
+    }
+
+    private static int swapped(int[] nodes, int p, int i, int j) {
+        return p == i ? nodes[j] : p == j ? nodes[i] : nodes[p];
+    }
+
+    /**
+     * Bucket of the hash in a table of 2^bits buckets, taken from the high bits.
+     */
+    public static int bucket(long hash, int bits) {
+        return bits == 0 ? 0 : (int) (hash >>> (64 - bits));
+    }
+}
@@ -0,0 +1,65 @@
+package org.genetic.alg;
+
+/**
+ * Tours stored as two undirected link slots per node, the form edge based crossovers edit a tour in.
+ */
+final class TourLinks {
+    private TourLinks() {
+    }
+
+    static void link(int[] nodes, int[] next, int[] prev) {
+        int n = nodes.length;
+        for (int i = 0; i < n; i++) {
+            next[nodes[i]] = nodes[(i + 1) % n];
+            prev[nodes[(i + 1) % n]] = nodes[i];
+        }
+    }
+
+    /**
+     * Walks the cycle through node 0 into the given array, fails when the links do not form a single tour.
+     */
+    static void toNodes(int[] link0, int[] link1, int[] nodes) {
+        int n = nodes.length;
+        int prev = link1[0];
+        int curr = 0;
+        int count = 0;
+        do {
+            if (count == n) {
+                throw new IllegalStateException("Links do not form a tour");
+            }
+            nodes[count++] = curr;
+            int next = link0[curr] == prev ? link1[curr] : link0[curr];
+            prev = curr;
+            curr = next;
+        } while (curr != 0);
+        if (count != n) {
+            throw new IllegalStateException("Links form a subtour of " + count + " out of " + n + " nodes");
+        }
+    }
+
+    static void remove(int[] link0, int[] link1, int x, int y) {
+        if (link0[x] == y) {
+            link0[x] = -1;
+        } else {
+            link1[x] = -1;
+        }
+        if (link0[y] == x) {
+            link0[y] = -1;
+        } else {
+            link1[y] = -1;
+        }
+    }
+
+    static void add(int[] link0, int[] link1, int x, int y) {
+        if (link0[x] == -1) {
+            link0[x] = y;
+        } else {
+            link1[x] = y;
+        }
+        if (link0[y] == -1) {
+            link0[y] = x;
+        } else {
+            link1[y] = x;
+        }
+    }
+}
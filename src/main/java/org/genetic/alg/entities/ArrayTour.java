@@ -0,0 +1,88 @@
+package org.genetic.alg.entities;
+
+/**
+ * Tour kept as an array of nodes and the position of every node. Queries are O(1), a flip reverses the shorter of the
+ * two paths it may reverse, so it costs up to n / 2 swaps.
+ */
+public class ArrayTour implements Tour {
+    private final int[] nodes;
+    private final int[] pos;
+
+    public ArrayTour(int[] nodes) {
+        this.nodes = nodes.clone();
+        this.pos = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            pos[nodes[i]] = i;
+        }
+    }
+
+    public ArrayTour(Path path) {
+        this(path.getNodes());
+    }
+
+    @Override
+    public void load(int[] nodes) {
+        if (nodes.length != this.nodes.length) {
+            throw new IllegalArgumentException("Expected " + this.nodes.length + " nodes, got " + nodes.length);
+        }
+        System.arraycopy(nodes, 0, this.nodes, 0, nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            pos[nodes[i]] = i;
+        }
+    }
+
+    @Override
+    public void copyNodes(int[] target) {
+        int first = pos[0];
+        System.arraycopy(nodes, first, target, 0, nodes.length - first);
+        System.arraycopy(nodes, 0, target, nodes.length - first, first);
+    }
+
+    @Override
+    public int size() {
+        return nodes.length;
+    }
+
+    @Override
+    public int next(int node) {
+        int i = pos[node] + 1;
+        return nodes[i == nodes.length ? 0 : i];
+    }
+
+    @Override
+    public int prev(int node) {
+        int i = pos[node] - 1;
+        return nodes[i < 0 ? nodes.length - 1 : i];
+    }
+
+    @Override
+    public boolean between(int a, int b, int c) {
+        int n = nodes.length;
+        return Math.floorMod(pos[b] - pos[a], n) <= Math.floorMod(pos[c] - pos[a], n);
+    }
+
+    @Override
+    public void flip(int a, int b, int c, int d) {
+        int n = nodes.length;
+        int inner = Math.floorMod(pos[c] - pos[b], n) + 1;
+        if (2 * inner <= n) {
+            reverse(pos[b], pos[c], inner);
+        } else {
+            reverse(pos[d], pos[a], n - inner);
+        }
+    }
+
+    private void reverse(int i, int j, int length) {
+        int n = nodes.length;
+        for (int k = 0; k < length / 2; k++) {
+            int left = nodes[i];
+            int right = nodes[j];
+            nodes[i] = right;
+            pos[right] = i;
+            nodes[j] = left;
+            pos[left] = j;
+            i = i + 1 == n ? 0 : i + 1;
+            j = j == 0 ? n - 1 : j - 1;
+        }
+    }
+}
@@ -2,5 +2,7 @@ package org.genetic.alg.entities;
 
 public enum CrossoverType {
     OX,
-    PMX
+    PMX,
+    EAX,
+    GPX
 }
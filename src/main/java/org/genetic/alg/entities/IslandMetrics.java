@@ -0,0 +1,13 @@
+package org.genetic.alg.entities;
+
+import java.util.List;
+
+/**
+ * Convergence summary of a single island, bestCosts holds the best cost seen after every generation and stopReason
+ * tells why the island stopped evolving.
+ */
+public record IslandMetrics(int island, MutationType mutationType, CrossoverType crossoverType,
+                            SelectionType selectionType, int generations, long evaluations,
+                            int migrantsReceived, double bestCost, List<Double> bestCosts,
+                            StopReason stopReason) {
+}
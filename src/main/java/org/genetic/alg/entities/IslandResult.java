@@ -0,0 +1,6 @@
+package org.genetic.alg.entities;
+
+import java.util.List;
+
+public record IslandResult(Path best, List<IslandMetrics> islands) {
+}
@@ -0,0 +1,7 @@
+package org.genetic.alg.entities;
+
+public enum MigrationTopology {
+    Ring,
+    FullyConnected,
+    Random
+}
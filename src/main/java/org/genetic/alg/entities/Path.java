@@ -1,37 +1,122 @@
 package org.genetic.alg.entities;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 @NoArgsConstructor
 @Getter
 @Setter
 public class Path {
     private double cost;
-    private List<Integer> nodes = new ArrayList<>();
+    private int[] nodes = new int[0];
+    @Setter(AccessLevel.NONE)
+    private boolean dirty;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long hash;
+    @Setter(AccessLevel.NONE)
+    private boolean hashed;
 
-    public Path(List<Integer> path, double sumCost) {
-        this.nodes.addAll(path);
+    /**
+     * Wraps the given tour without copying it, the caller hands over ownership of the array.
+     */
+    public Path(int[] path, double sumCost) {
+        this.nodes = path;
         this.cost = sumCost;
     }
 
-    public void addNode(int node) {
-        this.nodes.add(node);
+    public Path(Path other) {
+        this(other.nodes.clone(), other.cost);
+        this.dirty = other.dirty;
+        this.hash = other.hash;
+        this.hashed = other.hashed;
+    }
+
+    /**
+     * Cost of the tour, which must have been evaluated since its nodes were last rebuilt.
+     */
+    public double getCost() {
+        if (dirty) {
+            throw new IllegalStateException("Cost of a rebuilt tour read before it was evaluated");
+        }
+        return cost;
+    }
+
+    /**
+     * Every change of the tour sets its cost, so the tour hash is dropped here and has to be set after the cost.
+     */
+    public void setCost(double cost) {
+        this.cost = cost;
+        this.dirty = false;
+        this.hashed = false;
+    }
+
+    /**
+     * Marks the cost as unknown after the nodes were rebuilt, it is evaluated later together with the rest of the
+     * generation. Incremental cost updates are skipped while the tour is dirty.
+     */
+    public void markDirty() {
+        this.dirty = true;
+        this.hashed = false;
+    }
+
+    /**
+     * Edge hash of the tour, which must have been set since the tour last changed.
+     */
+    public long getHash() {
+        if (!hashed) {
+            throw new IllegalStateException("Hash of a tour read before it was computed");
+        }
+        return hash;
+    }
+
+    public void setHash(long hash) {
+        this.hash = hash;
+        this.hashed = true;
+    }
+
+    public void setNodes(int[] nodes) {
+        this.nodes = nodes;
+        this.hashed = false;
+    }
+
+    /**
+     * Overwrites this tour with a copy of the other one, reusing the node array when the sizes match.
+     */
+    public void copyFrom(Path other) {
+        if (nodes.length == other.nodes.length) {
+            System.arraycopy(other.nodes, 0, nodes, 0, nodes.length);
+        } else {
+            nodes = other.nodes.clone();
+        }
+        cost = other.cost;
+        dirty = other.dirty;
+        hash = other.hash;
+        hashed = other.hashed;
     }
 
     public int getNode(int index) {
-        return this.nodes.get(index);
+        return this.nodes[index];
+    }
+
+    public void setNode(int index, int node) {
+        this.nodes[index] = node;
+        this.hashed = false;
+    }
+
+    public int size() {
+        return this.nodes.length;
     }
 
     @Override
     public String toString() {
         return "Path ( " +
                 "cost = " + cost +
-                ", nodes = " + nodes +
+                ", nodes = " + Arrays.toString(nodes) +
                 " )";
     }
 }
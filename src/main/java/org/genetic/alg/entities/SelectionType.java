@@ -2,5 +2,8 @@ package org.genetic.alg.entities;
 
 public enum SelectionType {
     Tournament,
-    Roulette
+    TournamentWithReplacement,
+    Roulette,
+    Rank,
+    StochasticUniversal
 }
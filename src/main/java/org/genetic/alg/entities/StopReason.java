@@ -0,0 +1,13 @@
+package org.genetic.alg.entities;
+
+/**
+ * Why a run ended, the first of the configured stop conditions that was met.
+ */
+public enum StopReason {
+    GenerationLimit,
+    EvaluationLimit,
+    TimeLimit,
+    Stagnation,
+    TargetCost,
+    OptimalityGap,
+}
@@ -0,0 +1,62 @@
+package org.genetic.alg.entities;
+
+import org.genetic.utils.entities.DistanceMatrix;
+
+/**
+ * Cyclic tour supporting the queries and moves of edge exchange heuristics. Orientation is an implementation
+ * detail: after a flip the tour may read in either direction, so callers re-derive it from next and prev.
+ */
+public interface Tour {
+    /**
+     * Array tour below genetic.twoLevelSize nodes, two-level tour from there on, where O(n) flips get too slow.
+     */
+    static Tour of(int[] nodes) {
+        return nodes.length >= TwoLevelTour.MIN_SIZE ? new TwoLevelTour(nodes) : new ArrayTour(nodes);
+    }
+
+    int size();
+
+    int next(int node);
+
+    int prev(int node);
+
+    /**
+     * Whether b is met when walking forward from a to c, both ends included.
+     */
+    boolean between(int a, int b, int c);
+
+    /**
+     * Replaces the edges (a, b) and (c, d) by (a, c) and (b, d), where b = next(a) and d = next(c).
+     */
+    void flip(int a, int b, int c, int d);
+
+    /**
+     * Replaces the tour by the given order of the same nodes, reusing the buffers.
+     */
+    void load(int[] nodes);
+
+    /**
+     * Nodes in tour order starting from node 0.
+     */
+    default int[] toNodes() {
+        var nodes = new int[size()];
+        copyNodes(nodes);
+        return nodes;
+    }
+
+    /**
+     * Writes the nodes in tour order starting from node 0 into the given array of the tour's size.
+     */
+    default void copyNodes(int[] target) {
+        int node = 0;
+        for (int i = 0; i < target.length; i++) {
+            target[i] = node;
+            node = next(node);
+        }
+    }
+
+    default Path toPath(DistanceMatrix graph) {
+        var nodes = toNodes();
+        return new Path(nodes, graph.getPathCost(nodes));
+    }
+}
@@ -0,0 +1,224 @@
+package org.genetic.alg.entities;
+
+/**
+ * Two-level tour: the nodes are kept in about sqrt(n) blocks, each a slice of a shared slot array read forward or
+ * backward according to its reverse bit, and the blocks are kept in an ordered sequence. A flip splits at most two
+ * blocks, reverses the run of blocks between them and toggles their reverse bits, so it costs O(sqrt(n)). Splits only
+ * shrink blocks, once there are eight times as many the tour is laid out into fresh blocks in O(n), which keeps the
+ * amortised cost of a flip at O(sqrt(n)). Queries are O(1).
+ */
+public class TwoLevelTour implements Tour {
+    /**
+     * Tour size from which {@link Tour#of} picks this representation over an array.
+     */
+    public static final int MIN_SIZE = Integer.getInteger("genetic.twoLevelSize", 10000);
+
+    private final int size;
+    private final int blockSize;
+    private final int maxBlocks;
+    private final int[] slots;
+    private final int[] slotOf;
+    private final int[] blockOf;
+    private final int[] start;
+    private final int[] length;
+    private final boolean[] reversed;
+    private final int[] rank;
+    private final int[] sequence;
+    private int blockCount;
+
+    public TwoLevelTour(int[] nodes) {
+        this.size = nodes.length;
+        this.blockSize = Math.max(1, (int) Math.ceil(Math.sqrt(size)));
+        int initialBlocks = (size + blockSize - 1) / blockSize;
+        this.maxBlocks = 8 * initialBlocks + 4;
+        this.slots = new int[size];
+        this.slotOf = new int[size];
+        this.blockOf = new int[size];
+        this.start = new int[maxBlocks];
+        this.length = new int[maxBlocks];
+        this.reversed = new boolean[maxBlocks];
+        this.rank = new int[maxBlocks];
+        this.sequence = new int[maxBlocks];
+        layout(nodes);
+    }
+
+    public TwoLevelTour(Path path) {
+        this(path.getNodes());
+    }
+
+    @Override
+    public void load(int[] nodes) {
+        if (nodes.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " nodes, got " + nodes.length);
+        }
+        layout(nodes);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int next(int node) {
+        int block = blockOf[node];
+        int slot = slotOf[node];
+        if (!reversed[block] && slot < start[block] + length[block] - 1) {
+            return slots[slot + 1];
+        }
+        if (reversed[block] && slot > start[block]) {
+            return slots[slot - 1];
+        }
+        return first(sequence[rank[block] + 1 == blockCount ? 0 : rank[block] + 1]);
+    }
+
+    @Override
+    public int prev(int node) {
+        int block = blockOf[node];
+        int slot = slotOf[node];
+        if (!reversed[block] && slot > start[block]) {
+            return slots[slot - 1];
+        }
+        if (reversed[block] && slot < start[block] + length[block] - 1) {
+            return slots[slot + 1];
+        }
+        return last(sequence[rank[block] == 0 ? blockCount - 1 : rank[block] - 1]);
+    }
+
+    @Override
+    public boolean between(int a, int b, int c) {
+        long keyA = key(a);
+        long keyB = key(b);
+        long keyC = key(c);
+        if (keyA <= keyC) {
+            return keyA <= keyB && keyB <= keyC;
+        }
+        return keyB >= keyA || keyB <= keyC;
+    }
+
+    @Override
+    public void flip(int a, int b, int c, int d) {
+        if (a == c || b == d) {
+            return;
+        }
+        if (blockCount + 4 > maxBlocks) {
+            layout(toNodes());
+        }
+        // Reversing b..c or d..a gives the same cycle, take the one that does not wrap around the block sequence
+        if (key(b) <= key(c)) {
+            reverse(b, c);
+        } else {
+            reverse(d, a);
+        }
+    }
+
+    /**
+     * Walks the blocks from the one holding node 0 around the sequence and back to it.
+     */
+    @Override
+    public void copyNodes(int[] target) {
+        int first = rank[blockOf[0]];
+        int skip = offset(0);
+        int i = 0;
+        for (int r = 0; r <= blockCount; r++) {
+            int block = sequence[(first + r) % blockCount];
+            int to = r == blockCount ? skip : length[block];
+            for (int k = r == 0 ? skip : 0; k < to; k++) {
+                target[i++] = slots[reversed[block] ? start[block] + length[block] - 1 - k : start[block] + k];
+            }
+        }
+    }
+
+    /**
+     * Reverses the path from x forward to y, where x does not come after y in the block sequence.
+     */
+    private void reverse(int x, int y) {
+        split(x);
+        int after = blockOf[y];
+        if (offset(y) < length[after] - 1) {
+            split(next(y));
+        }
+        int from = rank[blockOf[x]];
+        int to = rank[blockOf[y]];
+        for (int i = from, j = to; i < j; i++, j--) {
+            int tmp = sequence[i];
+            sequence[i] = sequence[j];
+            sequence[j] = tmp;
+        }
+        for (int r = from; r <= to; r++) {
+            int block = sequence[r];
+            reversed[block] = !reversed[block];
+            rank[block] = r;
+        }
+    }
+
+    /**
+     * Makes the node the first of its block, the smaller of the two parts becomes a new block.
+     */
+    private void split(int node) {
+        int block = blockOf[node];
+        int head = offset(node);
+        if (head == 0) {
+            return;
+        }
+        int tail = length[block] - head;
+        // Storage range of the part before the node in tour order
+        int headStart = reversed[block] ? start[block] + tail : start[block];
+        int tailStart = reversed[block] ? start[block] : start[block] + head;
+        int created = blockCount;
+        boolean moveHead = head <= tail;
+        int movedStart = moveHead ? headStart : tailStart;
+        int movedLength = moveHead ? head : tail;
+        start[created] = movedStart;
+        length[created] = movedLength;
+        reversed[created] = reversed[block];
+        start[block] = moveHead ? tailStart : headStart;
+        length[block] = moveHead ? tail : head;
+        for (int slot = movedStart; slot < movedStart + movedLength; slot++) {
+            blockOf[slots[slot]] = created;
+        }
+
+        int position = moveHead ? rank[block] : rank[block] + 1;
+        System.arraycopy(sequence, position, sequence, position + 1, blockCount - position);
+        sequence[position] = created;
+        blockCount++;
+        for (int r = position; r < blockCount; r++) {
+            rank[sequence[r]] = r;
+        }
+    }
+
+    private int offset(int node) {
+        int block = blockOf[node];
+        int inStorage = slotOf[node] - start[block];
+        return reversed[block] ? length[block] - 1 - inStorage : inStorage;
+    }
+
+    private long key(int node) {
+        return (long) rank[blockOf[node]] * size + offset(node);
+    }
+
+    private int first(int block) {
+        return slots[reversed[block] ? start[block] + length[block] - 1 : start[block]];
+    }
+
+    private int last(int block) {
+        return slots[reversed[block] ? start[block] : start[block] + length[block] - 1];
+    }
+
+    private void layout(int[] nodes) {
+        System.arraycopy(nodes, 0, slots, 0, size);
+        blockCount = 0;
+        for (int from = 0; from < size; from += blockSize) {
+            int block = blockCount++;
+            start[block] = from;
+            length[block] = Math.min(blockSize, size - from);
+            reversed[block] = false;
+            rank[block] = block;
+            sequence[block] = block;
+        }
+        for (int slot = 0; slot < size; slot++) {
+            slotOf[slots[slot]] = slot;
+            blockOf[slots[slot]] = slot / blockSize;
+        }
+    }
+}
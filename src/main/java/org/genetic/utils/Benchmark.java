@@ -0,0 +1,439 @@
+package org.genetic.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.genetic.alg.GeneticAlgorithm;
+import org.genetic.alg.HeldKarpBound;
+import org.genetic.alg.LinKernighan;
+import org.genetic.alg.PopulationIndex;
+import org.genetic.alg.SelectionEngine;
+import org.genetic.alg.entities.ArrayTour;
+import org.genetic.alg.entities.CrossoverType;
+import org.genetic.alg.entities.InitializationType;
+import org.genetic.alg.entities.Path;
+import org.genetic.alg.entities.SelectionType;
+import org.genetic.alg.entities.Tour;
+import org.genetic.alg.entities.TwoLevelTour;
+import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.Interval;
+import org.genetic.utils.entities.Node;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class Benchmark {
+    private static final Logger logger = LogManager.getLogger(Benchmark.class);
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void benchmarkEvaluation(DistanceMatrix graph, String instanceName) throws IOException {
+        int tourCount = 1000;
+        List<List<Integer>> boxedTours = new ArrayList<>(tourCount);
+        List<Path> paths = new ArrayList<>(tourCount);
+        for (int i = 0; i < tourCount; i++) {
+            List<Integer> tour = new ArrayList<>(graph.size());
+            for (int node = 0; node < graph.size(); node++) {
+                tour.add(node);
+            }
+            Collections.shuffle(tour);
+            boxedTours.add(tour);
+            paths.add(new Path(tour.stream().mapToInt(Integer::intValue).toArray(), 0));
+        }
+
+        var boxed = measure(() -> {
+            double sink = 0;
+            for (var tour : boxedTours) {
+                sink += boxedPathCost(graph, tour);
+            }
+            return sink;
+        }, tourCount);
+        var primitive = measure(() -> {
+            double sink = 0;
+            for (var path : paths) {
+                graph.setPathCost(path);
+                sink += path.getCost();
+            }
+            return sink;
+        }, tourCount);
+
+        logger.info("Instance {} evaluation throughput: List<Integer> {} eval/s, int[] {} eval/s, speedup {}",
+                instanceName, (long) boxed, (long) primitive, String.format("%.2f", primitive / boxed));
+    }
+
+    /**
+     * Measures the bytes allocated per generation by a sequential run on the calling thread, as the difference between
+     * a short and a long run so that initialization cancels out. With the double buffered population and allocation
+     * free random draws this stays within a few dozen bytes for every crossover type.
+     */
+    public static void benchmarkAllocation(DistanceMatrix graph, String instanceName) {
+        var threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean allocation) || !allocation.isThreadAllocatedMemorySupported()) {
+            logger.warn("Thread allocation counters are not supported by this JVM");
+            return;
+        }
+        allocation.setThreadAllocatedMemoryEnabled(true);
+        int shortRun = 50;
+        int longRun = 250;
+        for (var crossoverType : CrossoverType.values()) {
+            var builder = new GeneticAlgorithm.Builder()
+                    .setInitializationType(InitializationType.Random)
+                    .setCrossoverType(crossoverType)
+                    .setPopulationSize(200)
+                    .setParallelism(1);
+            // Warm up so that JIT compilation and lazily built tables are not measured
+            builder.setGenerationLimit(longRun).build().execute(graph, null);
+            var threadId = Thread.currentThread().getId();
+            long start = allocation.getThreadAllocatedBytes(threadId);
+            builder.setGenerationLimit(shortRun).build().execute(graph, null);
+            long middle = allocation.getThreadAllocatedBytes(threadId);
+            builder.setGenerationLimit(longRun).build().execute(graph, null);
+            long end = allocation.getThreadAllocatedBytes(threadId);
+            var perGeneration = ((end - middle) - (middle - start)) / (double) (longRun - shortRun);
+            logger.info("Instance {} crossover {}: {} bytes allocated per generation",
+                    instanceName, crossoverType, (long) Math.max(0, perGeneration));
+        }
+    }
+
+    /**
+     * Computes the Held-Karp bound of the instance and compares short Lin-Kernighan runs on candidate lists of five
+     * nodes ranked by distance and by alpha-nearness, reporting the gap of both tours above the bound.
+     */
+    public static void benchmarkLowerBound(DistanceMatrix graph, String instanceName) {
+        long start = System.nanoTime();
+        var heldKarp = HeldKarpBound.compute(graph, HeldKarpBound.DEFAULT_ITERATION_LIMIT);
+        var boundMillis = (System.nanoTime() - start) / 1_000_000;
+        var builder = new LinKernighan.Builder().setNeighbourCount(5).setKickLimit(200);
+        var nearest = builder.build().execute(graph);
+        var alpha = builder.setAlphaCandidates(true).build().execute(graph);
+        logger.info("Instance {} Held-Karp bound {} after {} iterations in {} ms, Lin-Kernighan gap: nearest {}%, alpha {}%",
+                instanceName, String.format("%.1f", heldKarp.getBound()), heldKarp.getIterations(), boundMillis,
+                String.format("%.2f", 100 * heldKarp.getGap(nearest.getCost())),
+                String.format("%.2f", 100 * heldKarp.getGap(alpha.getCost())));
+    }
+
+    /**
+     * Runs a strongly elitist configuration, 50 elites of 500, without and with the tour cost cache and duplicate
+     * rejection, reporting the run time and the best cost of each.
+     */
+    public static void benchmarkTourCache(DistanceMatrix graph, String instanceName) {
+        for (int mode = 0; mode < 4; mode++) {
+            boolean cached = (mode & 1) != 0;
+            boolean unique = (mode & 2) != 0;
+            var genetic = new GeneticAlgorithm.Builder()
+                    .setInitializationType(InitializationType.Random)
+                    .setPopulationSize(500)
+                    .setEliteSize(50)
+                    .setGenerationLimit(1000)
+                    .setCostCacheSize(cached ? 4096 : 0)
+                    .setRejectDuplicates(unique)
+                    .build();
+            long start = System.nanoTime();
+            var best = genetic.execute(graph, null);
+            logger.info("Instance {} cost cache {}, duplicate rejection {}: best {} in {} ms",
+                    instanceName, cached, unique, best.getCost(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Draws random intervals from the given number of threads at once, through a single shared java.util.Random as
+     * the previous generator did and through the per-thread streams, reporting the total draws per second.
+     */
+    public static void benchmarkRandom(int threadCount) throws IOException {
+        int draws = 1_000_000;
+        var shared = new Random();
+        var legacy = measure(() -> runConcurrently(threadCount, () -> {
+            double sink = 0;
+            for (int i = 0; i < draws; i++) {
+                sink += legacyInterval(shared, 1000).max();
+            }
+            return sink;
+        }), threadCount * draws);
+        var streams = measure(() -> runConcurrently(threadCount, () -> {
+            double sink = 0;
+            for (int i = 0; i < draws; i++) {
+                sink += RandomGenerator.getRandomInterval(1000).max();
+            }
+            return sink;
+        }), threadCount * draws);
+        logger.info("Random intervals from {} threads: shared Random {} draws/s, per-thread streams {} draws/s, speedup {}",
+                threadCount, (long) legacy, (long) streams, String.format("%.2f", streams / legacy));
+    }
+
+    /**
+     * Parses a generated TSPLIB file of the given size with the streaming parser and with the previous
+     * String.split based reader, reporting throughput in MB/s.
+     */
+    public static void benchmarkLoader(int nodeCount) throws IOException {
+        var file = Files.createTempFile("benchmark", ".tsp");
+        try {
+            var random = new Random();
+            try (var writer = Files.newBufferedWriter(file)) {
+                writer.write("NAME : benchmark\nTYPE : TSP\nDIMENSION : " + nodeCount + "\nEDGE_WEIGHT_TYPE : EUC_2D\n");
+                writer.write("NODE_COORD_SECTION\n");
+                for (int i = 1; i <= nodeCount; i++) {
+                    writer.write(i + " " + random.nextInt(1_000_000) / 100.0 + " " + random.nextInt(1_000_000) / 100.0 + "\n");
+                }
+                writer.write("EOF\n");
+            }
+            var path = file.toString();
+            var megabytes = Files.size(file) / 1e6;
+
+            var split = measure(() -> splitParse(path), 1);
+            var streaming = measure(() -> TsplibParser.parse(path).size(), 1);
+            logger.info("Parsing {} nodes ({} MB): String.split {} MB/s, streaming {} MB/s, speedup {}",
+                    nodeCount, String.format("%.1f", megabytes), String.format("%.1f", split * megabytes),
+                    String.format("%.1f", streaming * megabytes), String.format("%.2f", streaming / split));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Draws parents from a sorted population with the previous list based tournament and with the prepared
+     * tournaments of the selection engine, reporting draws per second.
+     */
+    public static void benchmarkSelection(int populationSize, int tournamentSize) throws IOException {
+        var random = new Random();
+        List<Path> population = new ArrayList<>(populationSize);
+        for (int i = 0; i < populationSize; i++) {
+            population.add(new Path(new int[0], random.nextDouble()));
+        }
+        population.sort(Comparator.comparing(Path::getCost));
+        int draws = 100_000;
+
+        var legacy = measure(() -> {
+            double sink = 0;
+            for (int i = 0; i < draws; i++) {
+                sink += listTournament(population, tournamentSize).getCost();
+            }
+            return sink;
+        }, draws);
+        var distinct = measureSelection(SelectionType.Tournament, population, tournamentSize, draws);
+        var withReplacement = measureSelection(SelectionType.TournamentWithReplacement, population, tournamentSize, draws);
+
+        logger.info("Tournament of {} in {}: List<Integer> {} draws/s, distinct entrants {} draws/s, with replacement {} draws/s",
+                tournamentSize, populationSize, (long) legacy, (long) distinct, (long) withReplacement);
+    }
+
+    /**
+     * Reads the best, worst, mean and elites of an unsorted population, once through a full sort of the list and once
+     * through a population index, reporting generations per second.
+     */
+    public static void benchmarkElites(int populationSize, int eliteSize) throws IOException {
+        var random = new Random();
+        List<Path> population = new ArrayList<>(populationSize);
+        for (int i = 0; i < populationSize; i++) {
+            population.add(new Path(new int[0], random.nextDouble()));
+        }
+        int rounds = 100;
+
+        var sorted = measure(() -> {
+            double sink = 0;
+            for (int i = 0; i < rounds; i++) {
+                var copy = new ArrayList<>(population);
+                copy.sort(Comparator.comparing(Path::getCost));
+                sink += copy.get(0).getCost() + copy.get(copy.size() - 1).getCost();
+                sink += copy.stream().mapToDouble(Path::getCost).average().orElse(0.0);
+                for (int e = 0; e < eliteSize; e++) {
+                    sink += copy.get(e).getCost();
+                }
+            }
+            return sink;
+        }, rounds);
+        var indexed = measure(() -> {
+            double sink = 0;
+            for (int i = 0; i < rounds; i++) {
+                var index = PopulationIndex.of(new ArrayList<>(population));
+                sink += index.getBestCost() + index.getWorstCost() + index.getMean();
+                for (var elite : index.elites(eliteSize)) {
+                    sink += index.cost(elite);
+                }
+            }
+            return sink;
+        }, rounds);
+        logger.info("Population of {} with {} elites: sorted list {} gen/s, population index {} gen/s",
+                populationSize, eliteSize, (long) sorted, (long) indexed);
+    }
+
+    /**
+     * Applies random 2-opt flips to an array tour and to a two-level tour of the given size, reporting flips per
+     * second. Local flips join nodes at most 50 positions apart, as local search moves mostly do.
+     */
+    public static void benchmarkTours(int nodeCount) throws IOException {
+        var random = new Random();
+        var nodes = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = i;
+        }
+        int flips = 100_000;
+        var moves = new int[2 * flips];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = random.nextInt(nodeCount);
+        }
+
+        var arrayRandom = measure(() -> applyFlips(new ArrayTour(nodes), moves, nodeCount), flips);
+        var twoLevelRandom = measure(() -> applyFlips(new TwoLevelTour(nodes), moves, nodeCount), flips);
+        var arrayLocal = measure(() -> applyFlips(new ArrayTour(nodes), moves, 50), flips);
+        var twoLevelLocal = measure(() -> applyFlips(new TwoLevelTour(nodes), moves, 50), flips);
+        logger.info("Tour of {} nodes, random flips: array {} flips/s, two-level {} flips/s; local flips: array {} flips/s, two-level {} flips/s",
+                nodeCount, (long) arrayRandom, (long) twoLevelRandom, (long) arrayLocal, (long) twoLevelLocal);
+    }
+
+    private static double applyFlips(Tour tour, int[] moves, int reach) {
+        for (int i = 0; i < moves.length; i += 2) {
+            int a = moves[i];
+            int c = moves[i + 1];
+            if (reach < tour.size()) {
+                c = a;
+                for (int step = moves[i + 1] % reach; step > 0; step--) {
+                    c = tour.next(c);
+                }
+            }
+            if (a != c) {
+                tour.flip(a, tour.next(a), c, tour.next(c));
+            }
+        }
+        return tour.next(0);
+    }
+
+    private static double measureSelection(SelectionType type, List<Path> population, int tournamentSize, int draws) throws IOException {
+        return measure(() -> {
+            var selection = SelectionEngine.prepare(type, population, tournamentSize);
+            double sink = 0;
+            for (int i = 0; i < draws; i++) {
+                sink += selection.select().getCost();
+            }
+            return sink;
+        }, draws);
+    }
+
+    /**
+     * The previous interval draw, rejection sampling with a boxed exclusion list.
+     */
+    private static Interval legacyInterval(Random random, int max) {
+        int first;
+        int second;
+        do {
+            first = random.nextInt(max);
+            do {
+                second = random.nextInt(max);
+            } while (List.of(first).contains(second));
+        } while (first >= second);
+        return new Interval(first, second);
+    }
+
+    private static double runConcurrently(int threadCount, Workload workload) throws IOException {
+        var results = new double[threadCount];
+        var threads = new ArrayList<Thread>(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            int slot = t;
+            var thread = new Thread(() -> {
+                try {
+                    results[slot] = workload.run();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (var thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Benchmark interrupted", e);
+        }
+        double sink = 0;
+        for (var result : results) {
+            sink += result;
+        }
+        return sink;
+    }
+
+    private static Path listTournament(List<Path> population, int tournamentSize) {
+        List<Integer> usedNodes = new ArrayList<>(tournamentSize);
+        List<Path> candidates = new ArrayList<>(tournamentSize);
+        while (usedNodes.size() < tournamentSize) {
+            var currNode = randomIntExcluding(population.size(), usedNodes);
+            usedNodes.add(currNode);
+            candidates.add(population.get(currNode));
+        }
+        return candidates.stream().min(Comparator.comparing(Path::getCost)).orElse(null);
+    }
+
+    /**
+     * Legacy rejection sampling of a value below max that is not in the list, kept only for the list tournament.
+     */
+    private static int randomIntExcluding(int max, List<Integer> exclusion) {
+        int randInt;
+        do {
+            randInt = RandomGenerator.getRandomInt(max);
+        } while (exclusion.contains(randInt));
+        return randInt;
+    }
+
+    private static double splitParse(String path) throws IOException {
+        List<Node> nodes = new ArrayList<>();
+        try (var reader = Files.newBufferedReader(java.nio.file.Path.of(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().startsWith("NODE_COORD_SECTION")) {
+                    break;
+                }
+            }
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.equals("EOF")) {
+                    break;
+                }
+                String[] params = line.split("\\s+");
+                nodes.add(new Node(Double.parseDouble(params[1]), Double.parseDouble(params[2])));
+            }
+        }
+        return nodes.size();
+    }
+
+    private static double boxedPathCost(DistanceMatrix graph, List<Integer> nodes) {
+        double result = 0;
+        int lastIndex = graph.size() - 1;
+        for (int i = 0; i < lastIndex; i++) {
+            result += graph.getDistance(nodes.get(i), nodes.get(i + 1));
+        }
+        result += graph.getDistance(nodes.get(lastIndex), nodes.get(0));
+        return result;
+    }
+
+    /**
+     * Runs the workload a few times to warm up the JIT and returns the best observed operations per second.
+     */
+    private static double measure(Workload workload, int operationsPerRound) throws IOException {
+        double sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += workload.run();
+        }
+        double best = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink += workload.run();
+            long elapsed = System.nanoTime() - start;
+            best = Math.max(best, operationsPerRound * 1e9 / elapsed);
+        }
+        if (sink == Double.MIN_VALUE) {
+            logger.trace("Unreachable sink value {}", sink);
+        }
+        return best;
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        double run() throws IOException;
+    }
+}
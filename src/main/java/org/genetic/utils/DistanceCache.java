@@ -0,0 +1,146 @@
+package org.genetic.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.genetic.utils.entities.DistFormat;
+import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.MappedDistanceMatrix;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Binary sidecar holding a computed distance matrix next to its .tsp file. The header stores the SHA-256 of the
+ * source file, a sidecar whose hash does not match is ignored and rewritten on the next load. The distance format is
+ * stored as well, for logging only, since the hash of the source file already determines it.
+ */
+public class DistanceCache {
+    private static final Logger logger = LogManager.getLogger(DistanceCache.class);
+    private static final int MAGIC = 0x54535044;
+    private static final int VERSION = 1;
+    private static final int FORMAT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    private static final int HEADER_LENGTH = 64;
+    private static final int WRITE_CHUNK = 1 << 16;
+
+    public static Path getSidecarPath(String path) {
+        return Path.of(path + ".dist");
+    }
+
+    public static byte[] hash(String path) throws IOException {
+        try (InputStream input = Files.newInputStream(Path.of(path))) {
+            var digest = MessageDigest.getInstance("SHA-256");
+            var buffer = new byte[WRITE_CHUNK];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static Optional<DistanceMatrix> read(Path sidecar, byte[] hash) {
+        if (!Files.isRegularFile(sidecar)) {
+            return Optional.empty();
+        }
+        try (var channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_LENGTH) {
+                return Optional.empty();
+            }
+            var header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return Optional.empty();
+            }
+            var format = new byte[FORMAT_LENGTH];
+            header.get(format);
+            var storedHash = new byte[HASH_LENGTH];
+            header.get(storedHash);
+            int size = header.getInt();
+            int elementBytes = header.getInt();
+            long dataLength = MappedDistanceMatrix.getDataLength(size, elementBytes);
+            if (!Arrays.equals(hash, storedHash) || channel.size() != HEADER_LENGTH + dataLength) {
+                return Optional.empty();
+            }
+            var data = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, dataLength);
+            logger.info("Mapped cached {} distances from {}", new String(format, StandardCharsets.US_ASCII).trim(), sidecar);
+            return Optional.of(new MappedDistanceMatrix(data, size, elementBytes));
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Ignoring unreadable distance cache {}", sidecar, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the upper triangle of the matrix to a temporary file and moves it into place, so concurrent readers never
+     * see a partially written sidecar.
+     */
+    public static void write(Path sidecar, byte[] hash, DistFormat format, DistanceMatrix matrix) {
+        int size = matrix.size();
+        int elementBytes = MappedDistanceMatrix.getElementBytes(matrix);
+        if (HEADER_LENGTH + MappedDistanceMatrix.getDataLength(size, elementBytes) > Integer.MAX_VALUE) {
+            logger.warn("Distance matrix of {} nodes is too large to be cached", size);
+            return;
+        }
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(sidecar.toAbsolutePath().getParent(), sidecar.getFileName().toString(), ".tmp");
+            try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                var buffer = ByteBuffer.allocate(WRITE_CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(VERSION);
+                buffer.put(Arrays.copyOf(format.name().getBytes(StandardCharsets.US_ASCII), FORMAT_LENGTH));
+                buffer.put(hash);
+                buffer.putInt(size).putInt(elementBytes);
+                buffer.position(HEADER_LENGTH);
+                for (int i = 0; i < size; i++) {
+                    for (int j = i + 1; j < size; j++) {
+                        if (buffer.remaining() < elementBytes) {
+                            flush(channel, buffer);
+                        }
+                        var distance = matrix.getDistance(i, j);
+                        switch (elementBytes) {
+                            case Short.BYTES -> buffer.putShort((short) distance);
+                            case Integer.BYTES -> buffer.putInt((int) distance);
+                            default -> buffer.putDouble(distance);
+                        }
+                    }
+                }
+                flush(channel, buffer);
+            }
+            Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Cached distance matrix in {}", sidecar);
+        } catch (IOException e) {
+            logger.warn("Failed to write distance cache {}", sidecar, e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // nothing left to clean up
+                }
+            }
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -3,40 +3,164 @@ package org.genetic.utils;
 
 import org.genetic.utils.entities.Interval;
 
-import java.util.List;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
+/**
+ * Random draws for the whole application. Every thread draws from its own SplittableRandom, split from a master
+ * generator on first use, so threads never contend on a shared seed. Workers that must be reproducible get a stream
+ * split from their parent thread's stream and bound for the duration of the task, which makes a run depend only on the
+ * master seed, set with {@link #setSeed} or -Dgenetic.seed. Draws allocate nothing.
+ */
 public class RandomGenerator {
-    private static final Random rand = new Random();
+    private static final Long SEED = Long.getLong("genetic.seed");
+    private static SplittableRandom master = SEED != null ? new SplittableRandom(SEED) : new SplittableRandom();
+    private static final ThreadLocal<Streams> streams = ThreadLocal.withInitial(() -> new Streams(splitMaster()));
 
-    public static int getRandomInt(int min, int max, List<Integer> exclusion) {
-        int randInt;
-        do {
-            randInt = rand.nextInt(max - min) + min;
-        } while (exclusion.contains(randInt));
-        return randInt;
+    /**
+     * Reseeds the master generator and the calling thread's stream, other threads keep their streams until they first
+     * draw after being started.
+     */
+    public static void setSeed(long seed) {
+        // Fetched first, so that creating the thread's initial stream does not consume the new master
+        var own = streams.get();
+        synchronized (RandomGenerator.class) {
+            master = new SplittableRandom(seed);
+        }
+        own.own = splitMaster();
+        own.depth = 0;
+        own.current = own.own;
     }
 
-    public static int getRandomInt(int max, List<Integer> exclusion) {
-        return getRandomInt(0, max, exclusion);
+    /**
+     * Creates an independent stream split from the calling thread's stream, meant to be bound to a single worker.
+     */
+    public static SplittableRandom split() {
+        return current().split();
+    }
+
+    /**
+     * Routes all draws made by the current thread to the given stream until {@link #unbind()} is called. Bindings
+     * nest, a pool thread running a worker task inline keeps the stream of its own task once the worker unbinds.
+     */
+    public static void bind(SplittableRandom stream) {
+        streams.get().push(stream);
+    }
+
+    /**
+     * Returns the current thread to the stream it drew from before the last {@link #bind}.
+     */
+    public static void unbind() {
+        streams.get().pop();
     }
 
     public static int getRandomInt(int max) {
-        return rand.nextInt(max);
+        return nextInt(max);
+    }
+
+    /**
+     * Uniform pair of distinct positions below max, drawn without rejection: the second position is drawn among the
+     * max - 1 values left and shifted past the first.
+     */
+    public static Interval getRandomInterval(int max) {
+        var stream = current();
+        int first = stream.nextInt(max);
+        int second = stream.nextInt(max - 1);
+        if (second >= first) {
+            second++;
+        }
+        // A single allocation site keeps the interval eligible for scalar replacement
+        return new Interval(Math.min(first, second), Math.max(first, second));
     }
 
-    public static Interval<Integer> getRandomInterval(int max) {
-        int firstIndex;
-        int secondIndex;
-        do {
-            firstIndex = RandomGenerator.getRandomInt(max);
-            secondIndex = RandomGenerator.getRandomInt(max, List.of(firstIndex));
-        } while (firstIndex >= secondIndex);
+    /**
+     * Fills target with target.length distinct values below bound using Floyd's algorithm, which takes exactly one draw
+     * per value. Membership is checked by scanning the values drawn so far, meant for the small samples of tournament
+     * entrants and of the cut points of Lin-Kernighan kicks.
+     */
+    public static void sampleDistinct(int bound, int[] target) {
+        int count = target.length;
+        if (count > bound) {
+            throw new IllegalArgumentException("Cannot draw " + count + " distinct values below " + bound);
+        }
+        var stream = current();
+        int filled = 0;
+        for (int j = bound - count; j < bound; j++) {
+            int value = stream.nextInt(j + 1);
+            for (int i = 0; i < filled; i++) {
+                if (target[i] == value) {
+                    value = j;
+                    break;
+                }
+            }
+            target[filled++] = value;
+        }
+    }
 
-        return new Interval<>(firstIndex, secondIndex);
+    /**
+     * Fisher-Yates shuffle in place, every permutation is equally likely regardless of the initial order.
+     */
+    public static void shuffle(int[] values) {
+        shuffle(values, 0, values.length);
+    }
+
+    /**
+     * Shuffles the values from up to, but not including, to and leaves the rest of the array untouched.
+     */
+    public static void shuffle(int[] values, int from, int to) {
+        var stream = current();
+        for (int i = to - 1; i > from; i--) {
+            int j = from + stream.nextInt(i - from + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
     }
 
     public static double randomDouble() {
-        return rand.nextDouble();
+        return current().nextDouble();
+    }
+
+    private static int nextInt(int bound) {
+        return current().nextInt(bound);
+    }
+
+    private static SplittableRandom current() {
+        return streams.get().current;
+    }
+
+    private static synchronized SplittableRandom splitMaster() {
+        return master.split();
+    }
+
+    /**
+     * The thread's own stream, the stack of bound streams and the one its draws currently go to.
+     */
+    private static final class Streams {
+        private SplittableRandom own;
+        private SplittableRandom current;
+        private SplittableRandom[] bound = new SplittableRandom[4];
+        private int depth;
+
+        private Streams(SplittableRandom own) {
+            this.own = own;
+            this.current = own;
+        }
+
+        void push(SplittableRandom stream) {
+            if (depth == bound.length) {
+                bound = Arrays.copyOf(bound, 2 * depth);
+            }
+            bound[depth++] = stream;
+            current = stream;
+        }
+
+        void pop() {
+            if (depth == 0) {
+                return;
+            }
+            bound[--depth] = null;
+            current = depth > 0 ? bound[depth - 1] : own;
+        }
     }
 }
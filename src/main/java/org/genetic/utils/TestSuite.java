@@ -70,7 +70,7 @@ public class TestSuite {
 
         var metricsPath = Paths.get("results", "run", instanceName + '_' + timeBody + ".csv").toString();
         var result = genetic.execute(graph, metricsPath);
-        logger.info("Instance {} finished with best result: {}", instanceName, result.getCost());
+        logger.info("Instance {} finished with best result: {} ({})", instanceName, result.getCost(), genetic.getStopReason());
     }
 
     public static void testParams(GeneticAlgorithm genetic, DistanceMatrix graph, String instanceName) throws IOException {
@@ -2,94 +2,97 @@ package org.genetic.utils;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.genetic.utils.entities.CoordinateDistanceMatrix;
 import org.genetic.utils.entities.DistFormat;
 import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.DistanceMatrixBuilder;
 import org.genetic.utils.entities.Node;
+import org.genetic.utils.entities.TsplibInstance;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.util.List;
 import java.util.Optional;
 
 public class TspLoader {
     private static final Logger logger = LogManager.getLogger(TspLoader.class);
+    public static final int ORACLE_SIZE_LIMIT = 10000;
+    private static final boolean USE_DISTANCE_CACHE = Boolean.parseBoolean(System.getProperty("genetic.distanceCache", "true"));
 
     public static Optional<DistanceMatrix> load(String path) {
-        List<Node> nodes = new ArrayList<>();
-        DistFormat format = null;
-        try (FileReader fReader = new FileReader(path)) {
-            BufferedReader reader = new BufferedReader(fReader);
-            String line;
-
-            //Read header data
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.startsWith("EDGE_WEIGHT_TYPE")) {
-                    String type = line.substring(line.indexOf(':') + 1).trim();
-                    logger.info("Using edge weight type: {}", type);
-                    switch (type) {
-                        case "EUC_2D" -> format = DistFormat.EUC_2D;
-                        case "GEO" -> format = DistFormat.GEO;
-                        default -> throw new UnsupportedOperationException("Unsupported EDGE_WEIGHT_TYPE: " + type);
-                    }
-                }
-                if (line.startsWith("NODE_COORD_SECTION")) {
-                    break;
+        byte[] hash = null;
+        var sidecar = DistanceCache.getSidecarPath(path);
+        // Hashing reads the whole file, so it is skipped unless there is a sidecar to check
+        if (USE_DISTANCE_CACHE && Files.isRegularFile(sidecar)) {
+            hash = hash(path);
+            if (hash != null) {
+                var cached = DistanceCache.read(sidecar, hash);
+                if (cached.isPresent()) {
+                    return cached;
                 }
             }
+        }
 
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.equals("EOF")) {
-                    break;
-                }
-                String[] params = line.split("\\s+");
-                if (params.length == 3) {
-                    double x = Double.parseDouble(params[1]);
-                    double y = Double.parseDouble(params[2]);
-                    Node newNode = new Node(x, y);
-                    nodes.add(newNode);
-                } else {
-                    throw new NumberFormatException("Invalid cord value");
-                }
-            }
-        } catch (FileNotFoundException e) {
+        TsplibInstance instance;
+        try {
+            instance = TsplibParser.parse(path);
+        } catch (NoSuchFileException e) {
             logger.error("File not found", e);
+            return Optional.empty();
         } catch (IOException e) {
             logger.error("Error reading file", e);
+            return Optional.empty();
         } catch (NumberFormatException e) {
             logger.error("Invalid cord value", e);
+            return Optional.empty();
         } catch (UnsupportedOperationException e) {
-            logger.error("Unsupported edge weight type", e);
+            logger.error("Unsupported instance", e);
+            return Optional.empty();
         }
-        logger.info("Loaded {} nodes from {}", nodes.size(), path);
+        var format = instance.format();
+        var nodes = instance.nodes();
+        logger.info("Loaded {} nodes from {}", instance.size(), path);
 
-        if (nodes.isEmpty() || format == null) {
+        if (instance.size() == 0 || format == null) {
             logger.warn("Failed to load nodes from {}", path);
             return Optional.empty();
         }
 
         // Build distance matrix
-        return Optional.of(getDistanceMatrix(nodes, format));
+        var matrix = instance.weights() != null ? instance.weights() : getDistanceMatrix(nodes, format);
+        if (USE_DISTANCE_CACHE && matrix.size() > DistanceMatrixBuilder.FLAT_SIZE_LIMIT && matrix.size() <= ORACLE_SIZE_LIMIT) {
+            if (hash == null) {
+                hash = hash(path);
+            }
+            if (hash != null) {
+                DistanceCache.write(sidecar, hash, format, matrix);
+            }
+        }
+        return Optional.of(matrix);
     }
 
-    private static DistanceMatrix getDistanceMatrix(List<Node> nodes, DistFormat format) {
-        int size = nodes.size();
-        double[][] distanceMatrix = new double[size][size];
-
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (i != j) {
-                    distanceMatrix[i][j] = nodes.get(i).getDistance(nodes.get(j), format);
-                } else {
-                    distanceMatrix[i][j] = 0.0;
-                }
-            }
+    /**
+     * SHA-256 of the file, null when it cannot be read, which the parser reports on its own.
+     */
+    private static byte[] hash(String path) {
+        try {
+            return DistanceCache.hash(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("Failed to hash {}, skipping distance cache", path, e);
+            return null;
         }
+    }
 
-        return new DistanceMatrix(distanceMatrix, size);
+    private static DistanceMatrix getDistanceMatrix(List<Node> nodes, DistFormat format) {
+        if (nodes.size() > ORACLE_SIZE_LIMIT) {
+            logger.info("Instance exceeds {} nodes, computing distances on demand", ORACLE_SIZE_LIMIT);
+            return new CoordinateDistanceMatrix(nodes, format);
+        }
+        var matrix = DistanceMatrix.of(nodes.size(), (x, y) -> nodes.get(x).getDistance(nodes.get(y), format));
+        logger.info("Using {} distance backend", matrix.getClass().getSimpleName());
+        return matrix;
     }
 }
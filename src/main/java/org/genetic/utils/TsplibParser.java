@@ -0,0 +1,138 @@
+package org.genetic.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.genetic.utils.entities.DistFormat;
+import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.DistanceMatrixBuilder;
+import org.genetic.utils.entities.Node;
+import org.genetic.utils.entities.TsplibInstance;
+import org.genetic.utils.entities.WeightFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming TSPLIB reader. Coordinates are collected into nodes, EXPLICIT weights are written into the distance
+ * matrix backend as they are read, without keeping any intermediate rows.
+ */
+public class TsplibParser {
+    private static final Logger logger = LogManager.getLogger(TsplibParser.class);
+
+    public static TsplibInstance parse(String path) throws IOException {
+        String name = null;
+        DistFormat format = null;
+        WeightFormat weightFormat = WeightFormat.FULL_MATRIX;
+        int dimension = -1;
+        List<Node> nodes = null;
+        DistanceMatrix weights = null;
+
+        try (var tokenizer = new TsplibTokenizer(path)) {
+            String line;
+            while (tokenizer.skipWhitespace() && (line = tokenizer.readLine()) != null) {
+                int colon = line.indexOf(':');
+                var key = (colon >= 0 ? line.substring(0, colon) : line).trim();
+                var value = colon >= 0 ? line.substring(colon + 1).trim() : "";
+                if (key.equals("EOF")) {
+                    break;
+                }
+                switch (key) {
+                    case "NAME" -> name = value;
+                    case "TYPE" -> {
+                        // ATSP, HCP, SOP and the routing types need a different objective than a symmetric tour
+                        if (!value.equals("TSP")) {
+                            throw new UnsupportedOperationException("Unsupported TYPE: " + value);
+                        }
+                    }
+                    case "DIMENSION" -> dimension = Integer.parseInt(value);
+                    case "EDGE_WEIGHT_TYPE" -> {
+                        logger.info("Using edge weight type: {}", value);
+                        format = parseFormat(value);
+                    }
+                    case "EDGE_WEIGHT_FORMAT" -> weightFormat = WeightFormat.parse(value);
+                    case "NODE_COORD_TYPE" -> {
+                        if (!value.equals("TWOD_COORDS")) {
+                            throw new UnsupportedOperationException("Unsupported NODE_COORD_TYPE: " + value);
+                        }
+                    }
+                    case "NODE_COORD_SECTION" -> nodes = readCoordinates(tokenizer, dimension);
+                    case "EDGE_WEIGHT_SECTION" -> weights = readWeights(tokenizer, dimension, weightFormat);
+                    case "DISPLAY_DATA_SECTION" -> skipSection(tokenizer);
+                    default -> {
+                        // COMMENT and other headers carry nothing the solver needs
+                    }
+                }
+            }
+        }
+        return new TsplibInstance(name, format, nodes != null ? nodes : List.of(), weights);
+    }
+
+    private static DistFormat parseFormat(String type) {
+        return switch (type) {
+            case "EUC_2D" -> DistFormat.EUC_2D;
+            case "GEO" -> DistFormat.GEO;
+            case "ATT" -> DistFormat.ATT;
+            case "CEIL_2D" -> DistFormat.CEIL_2D;
+            case "MAN_2D" -> DistFormat.MAN_2D;
+            case "EXPLICIT" -> DistFormat.EXPLICIT;
+            default -> throw new UnsupportedOperationException("Unsupported EDGE_WEIGHT_TYPE: " + type);
+        };
+    }
+
+    private static List<Node> readCoordinates(TsplibTokenizer tokenizer, int dimension) throws IOException {
+        List<Node> nodes = new ArrayList<>(Math.max(dimension, 16));
+        while (tokenizer.skipWhitespace() && isNumberStart(tokenizer.peek())) {
+            tokenizer.nextDouble();
+            double x = tokenizer.nextDouble();
+            double y = tokenizer.nextDouble();
+            nodes.add(new Node(x, y));
+        }
+        return nodes;
+    }
+
+    private static DistanceMatrix readWeights(TsplibTokenizer tokenizer, int dimension, WeightFormat weightFormat) throws IOException {
+        if (dimension <= 0) {
+            throw new NumberFormatException("EDGE_WEIGHT_SECTION requires a positive DIMENSION");
+        }
+        var builder = new DistanceMatrixBuilder(dimension);
+        for (int i = 0; i < dimension; i++) {
+            int from = switch (weightFormat) {
+                case FULL_MATRIX, LOWER_ROW, LOWER_DIAG_ROW -> 0;
+                case UPPER_ROW -> i + 1;
+                case UPPER_DIAG_ROW -> i;
+            };
+            int to = switch (weightFormat) {
+                case FULL_MATRIX, UPPER_ROW, UPPER_DIAG_ROW -> dimension - 1;
+                case LOWER_ROW -> i - 1;
+                case LOWER_DIAG_ROW -> i;
+            };
+            for (int j = from; j <= to; j++) {
+                var weight = tokenizer.nextDouble();
+                if (j == i) {
+                    continue;
+                }
+                // A full matrix lists every pair twice, the lower half must repeat the upper one
+                if (weightFormat == WeightFormat.FULL_MATRIX && j < i) {
+                    if (weight != builder.get(j, i)) {
+                        throw new UnsupportedOperationException("Asymmetric FULL_MATRIX: weight " + weight + " from "
+                                + (i + 1) + " to " + (j + 1) + " differs from " + builder.get(j, i) + " back");
+                    }
+                    continue;
+                }
+                builder.set(i, j, weight);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void skipSection(TsplibTokenizer tokenizer) throws IOException {
+        while (tokenizer.skipWhitespace() && isNumberStart(tokenizer.peek())) {
+            tokenizer.nextDouble();
+        }
+    }
+
+    private static boolean isNumberStart(int c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+    }
+}
@@ -0,0 +1,163 @@
+package org.genetic.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Byte level tokenizer over a file channel. Numbers are parsed straight from the read buffer, strings are only
+ * created for header lines and section keywords.
+ */
+class TsplibTokenizer implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final int MANTISSA = 0;
+    private static final int FRACTION = 1;
+    private static final int EXPONENT = 2;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private final byte[] token = new byte[64];
+    private int position;
+    private int limit;
+
+    TsplibTokenizer(String path) throws IOException {
+        this.channel = FileChannel.open(Path.of(path), StandardOpenOption.READ);
+    }
+
+    /**
+     * Returns the next character without consuming it, -1 at the end of the file.
+     */
+    int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return bytes[position];
+    }
+
+    /**
+     * Skips whitespace including line breaks, returns false at the end of the file.
+     */
+    boolean skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != -1) {
+            if (c > ' ') {
+                return true;
+            }
+            position++;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the rest of the current line without the line break, null at the end of the file.
+     */
+    String readLine() throws IOException {
+        if (peek() == -1) {
+            return null;
+        }
+        var line = new StringBuilder();
+        int c;
+        while ((c = peek()) != -1) {
+            position++;
+            if (c == '\n') {
+                break;
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    double nextDouble() throws IOException {
+        if (!skipWhitespace()) {
+            throw new NumberFormatException("Unexpected end of file");
+        }
+        int length = 0;
+        boolean negative = false;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        int exponent = 0;
+        boolean exponentNegative = false;
+        int state = MANTISSA;
+        boolean exact = true;
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            token[length++] = (byte) c;
+            position++;
+        }
+        while ((c = peek()) != -1 && c > ' ') {
+            if (length == token.length) {
+                throw new NumberFormatException("Number token too long");
+            }
+            token[length++] = (byte) c;
+            position++;
+            if (c >= '0' && c <= '9') {
+                if (state == EXPONENT) {
+                    exponent = Math.min(exponent * 10 + (c - '0'), 1000);
+                } else if (mantissa == 0 && c == '0') {
+                    scale += state == FRACTION ? 1 : 0;
+                } else if (digits < MAX_FAST_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    scale += state == FRACTION ? 1 : 0;
+                } else if (state == MANTISSA || c != '0') {
+                    exact = false;
+                }
+            } else if (c == '.' && state == MANTISSA) {
+                state = FRACTION;
+            } else if ((c == 'e' || c == 'E') && state != EXPONENT) {
+                state = EXPONENT;
+                if ((peek() == '-' || peek() == '+') && length < token.length) {
+                    exponentNegative = peek() == '-';
+                    token[length++] = (byte) peek();
+                    position++;
+                }
+            } else {
+                exact = false;
+            }
+        }
+        if (length == 0 || (length == 1 && (token[0] == '-' || token[0] == '+'))) {
+            throw new NumberFormatException("Invalid cord value");
+        }
+        int power = (exponentNegative ? -exponent : exponent) - scale;
+        if (exact && Math.abs(power) < POWERS_OF_TEN.length) {
+            // Both operands are exact doubles, so a single multiplication or division rounds correctly
+            var value = power < 0 ? mantissa / POWERS_OF_TEN[-power] : mantissa * POWERS_OF_TEN[power];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(token, 0, length, StandardCharsets.US_ASCII));
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) {
+            position = limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,82 @@
+package org.genetic.utils.entities;
+
+import java.util.List;
+
+/**
+ * Distance oracle for instances too large for any stored matrix, distances are computed from node coordinates on
+ * demand and nearest neighbour queries go through a coordinate grid. Grid queries rank nodes by planar distance of
+ * the raw coordinates, which is exact for EUC_2D and only an approximation for GEO.
+ */
+public class CoordinateDistanceMatrix implements DistanceMatrix {
+    private final Node[] nodes;
+    private final DistFormat format;
+    private final CoordinateGrid grid;
+    private volatile NeighbourLists neighbourLists;
+
+    public CoordinateDistanceMatrix(List<Node> nodes, DistFormat format) {
+        this.nodes = nodes.toArray(new Node[0]);
+        this.format = format;
+        var xs = new double[this.nodes.length];
+        var ys = new double[this.nodes.length];
+        for (int i = 0; i < this.nodes.length; i++) {
+            xs[i] = this.nodes[i].x();
+            ys[i] = this.nodes[i].y();
+        }
+        this.grid = new CoordinateGrid(xs, ys);
+    }
+
+    @Override
+    public int size() {
+        return nodes.length;
+    }
+
+    @Override
+    public double getDistance(int x, int y) {
+        if (x == y) {
+            return 0.0;
+        }
+        return nodes[x].getDistance(nodes[y], format);
+    }
+
+    /**
+     * Builds the lists from the grid in roughly O(n k) and keeps them for later calls asking for at most k neighbours.
+     */
+    @Override
+    public NeighbourLists getNeighbourLists(int k) {
+        var cached = neighbourLists;
+        if (cached != null && cached.k() >= Math.min(k, size() - 1)) {
+            return cached;
+        }
+        k = Math.max(0, Math.min(k, size() - 1));
+        var neighbours = new int[size() * k];
+        var distances = new double[k];
+        for (int node = 0; node < size(); node++) {
+            // Take twice as many planar candidates and rerank them with the real distance function
+            var candidates = grid.nearest(node, Math.min(2 * k, size() - 1));
+            int found = 0;
+            int offset = node * k;
+            for (int other : candidates) {
+                var distance = getDistance(node, other);
+                if (found == k && distance >= distances[k - 1]) {
+                    continue;
+                }
+                int position = found < k ? found++ : k - 1;
+                while (position > 0 && distances[position - 1] > distance) {
+                    distances[position] = distances[position - 1];
+                    neighbours[offset + position] = neighbours[offset + position - 1];
+                    position--;
+                }
+                distances[position] = distance;
+                neighbours[offset + position] = other;
+            }
+        }
+        cached = new NeighbourLists(neighbours, k);
+        neighbourLists = cached;
+        return cached;
+    }
+
+    @Override
+    public int getShortestRoute(int node, boolean[] visited) {
+        return grid.nearestUnvisited(node, visited);
+    }
+}
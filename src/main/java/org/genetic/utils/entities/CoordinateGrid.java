@@ -0,0 +1,177 @@
+package org.genetic.utils.entities;
+
+/**
+ * Uniform bucket grid over node coordinates with about two nodes per cell, answers nearest neighbour queries by
+ * scanning rings of cells around the query node until no closer node can exist.
+ */
+final class CoordinateGrid {
+    private final double[] xs;
+    private final double[] ys;
+    private final double minX;
+    private final double minY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+
+    CoordinateGrid(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+        int size = xs.length;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double lowX = Double.POSITIVE_INFINITY;
+        double lowY = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            lowX = Math.min(lowX, xs[i]);
+            lowY = Math.min(lowY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        this.minX = lowX;
+        this.minY = lowY;
+        int side = Math.max(1, (int) Math.ceil(Math.sqrt(size / 2.0)));
+        double extent = Math.max(maxX - lowX, maxY - lowY);
+        this.cellSize = extent > 0 ? extent / side : 1.0;
+        this.columns = Math.min(side, (int) ((maxX - lowX) / cellSize) + 1);
+        this.rows = Math.min(side, (int) ((maxY - lowY) / cellSize) + 1);
+
+        this.cellStart = new int[columns * rows + 1];
+        this.cellNodes = new int[size];
+        for (int i = 0; i < size; i++) {
+            cellStart[cellOf(i) + 1]++;
+        }
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        var fill = new int[columns * rows];
+        for (int i = 0; i < size; i++) {
+            int cell = cellOf(i);
+            cellNodes[cellStart[cell] + fill[cell]++] = i;
+        }
+    }
+
+    /**
+     * Returns up to count nodes closest to node in coordinate space, sorted by ascending distance.
+     */
+    int[] nearest(int node, int count) {
+        var found = new int[count];
+        var distances = new double[count];
+        int size = 0;
+        int column = column(xs[node]);
+        int row = row(ys[node]);
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int cell : ringCells(column, row, ring)) {
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int other = cellNodes[i];
+                    if (other == node) {
+                        continue;
+                    }
+                    var distance = squaredDistance(node, other);
+                    if (size == count && distance >= distances[count - 1]) {
+                        continue;
+                    }
+                    int position = size < count ? size++ : count - 1;
+                    while (position > 0 && distances[position - 1] > distance) {
+                        distances[position] = distances[position - 1];
+                        found[position] = found[position - 1];
+                        position--;
+                    }
+                    distances[position] = distance;
+                    found[position] = other;
+                }
+            }
+            double reach = ring * cellSize;
+            if (size == count && distances[count - 1] <= reach * reach) {
+                break;
+            }
+        }
+        if (size < count) {
+            var trimmed = new int[size];
+            System.arraycopy(found, 0, trimmed, 0, size);
+            return trimmed;
+        }
+        return found;
+    }
+
+    /**
+     * Returns the closest node in coordinate space that is not yet visited, or -1 when every node is visited.
+     */
+    int nearestUnvisited(int node, boolean[] visited) {
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        int column = column(xs[node]);
+        int row = row(ys[node]);
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int cell : ringCells(column, row, ring)) {
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int other = cellNodes[i];
+                    if (other == node || visited[other]) {
+                        continue;
+                    }
+                    var distance = squaredDistance(node, other);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = other;
+                    }
+                }
+            }
+            double reach = ring * cellSize;
+            if (best != -1 && bestDistance <= reach * reach) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private int[] ringCells(int column, int row, int ring) {
+        if (ring == 0) {
+            return new int[]{row * columns + column};
+        }
+        var cells = new int[8 * ring];
+        int count = 0;
+        for (int dx = -ring; dx <= ring; dx++) {
+            count = addCell(cells, count, column + dx, row - ring);
+            count = addCell(cells, count, column + dx, row + ring);
+        }
+        for (int dy = -ring + 1; dy < ring; dy++) {
+            count = addCell(cells, count, column - ring, row + dy);
+            count = addCell(cells, count, column + ring, row + dy);
+        }
+        if (count < cells.length) {
+            var trimmed = new int[count];
+            System.arraycopy(cells, 0, trimmed, 0, count);
+            return trimmed;
+        }
+        return cells;
+    }
+
+    private int addCell(int[] cells, int count, int column, int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            return count;
+        }
+        cells[count] = row * columns + column;
+        return count + 1;
+    }
+
+    private int cellOf(int node) {
+        return row(ys[node]) * columns + column(xs[node]);
+    }
+
+    private int column(double x) {
+        return Math.min(columns - 1, (int) ((x - minX) / cellSize));
+    }
+
+    private int row(double y) {
+        return Math.min(rows - 1, (int) ((y - minY) / cellSize));
+    }
+
+    private double squaredDistance(int a, int b) {
+        var distX = xs[a] - xs[b];
+        var distY = ys[a] - ys[b];
+        return distX * distX + distY * distY;
+    }
+}
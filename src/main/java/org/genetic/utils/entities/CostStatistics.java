@@ -0,0 +1,54 @@
+package org.genetic.utils.entities;
+
+import lombok.Getter;
+
+/**
+ * Running min, max, mean and standard deviation of tour costs in constant memory, using Welford's update. Partial
+ * statistics gathered on separate threads can be combined with {@link #merge(CostStatistics)}.
+ */
+@Getter
+public class CostStatistics {
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double mean;
+    private double squaredDeviations;
+
+    public void add(double cost) {
+        count++;
+        min = Math.min(min, cost);
+        max = Math.max(max, cost);
+        var delta = cost - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (cost - mean);
+    }
+
+    public CostStatistics merge(CostStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            min = other.min;
+            max = other.max;
+            mean = other.mean;
+            squaredDeviations = other.squaredDeviations;
+            return this;
+        }
+        long total = count + other.count;
+        var delta = other.mean - mean;
+        squaredDeviations += other.squaredDeviations + delta * delta * count * other.count / total;
+        mean += delta * other.count / total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        count = total;
+        return this;
+    }
+
+    /**
+     * Population standard deviation, matching the metric previously computed from the full result list.
+     */
+    public double getStd() {
+        return count > 0 ? Math.sqrt(squaredDeviations / count) : 0.0;
+    }
+}
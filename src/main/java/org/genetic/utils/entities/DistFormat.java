@@ -2,5 +2,9 @@ package org.genetic.utils.entities;
 
 public enum DistFormat {
     EUC_2D,
-    GEO
+    GEO,
+    ATT,
+    CEIL_2D,
+    MAN_2D,
+    EXPLICIT
 }
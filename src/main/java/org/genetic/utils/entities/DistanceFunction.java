@@ -0,0 +1,6 @@
+package org.genetic.utils.entities;
+
+@FunctionalInterface
+public interface DistanceFunction {
+    double getDistance(int x, int y);
+}
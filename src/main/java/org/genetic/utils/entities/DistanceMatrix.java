@@ -2,33 +2,94 @@ package org.genetic.utils.entities;
 
 import org.genetic.alg.entities.Path;
 
-import java.util.List;
+/**
+ * Symmetric distances between the nodes of an instance, implementations differ only in how they are stored.
+ */
+public interface DistanceMatrix {
+    int size();
 
-public record DistanceMatrix(double[][] distanceMatrix, int size) {
-    public double getDistance(int x, int y) {
-        return this.distanceMatrix[x][y];
+    double getDistance(int x, int y);
+
+    /**
+     * Fills a matrix from the given distance function, picking the most compact backend that suits the instance size.
+     */
+    static DistanceMatrix of(int size, DistanceFunction distance) {
+        var builder = new DistanceMatrixBuilder(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                builder.set(i, j, distance.getDistance(i, j));
+            }
+        }
+        return builder.build();
+    }
+
+    default void setPathCost(Path path) {
+        path.setCost(getPathCost(path.getNodes()));
     }
 
-    public void setPathCost(Path path) {
-        double result = 0;
+    default double getPathCost(int[] nodes) {
         int lastIndex = this.size() - 1;
+        double result = getDistance(nodes[lastIndex], nodes[0]);
 
         for (int i = 0; i < lastIndex; i++) {
-            result += getDistance(path.getNode(i), path.getNode(i + 1));
+            result += getDistance(nodes[i], nodes[i + 1]);
+        }
+        return result;
+    }
+
+    /**
+     * Cost change of swapping the nodes at positions i < j, assumes a symmetric instance.
+     */
+    default double getSwapDelta(int[] nodes, int i, int j) {
+        int n = nodes.length;
+        if (n < 4) {
+            return 0;
+        }
+        int a = nodes[i];
+        int b = nodes[j];
+        int prevA = nodes[(i - 1 + n) % n];
+        int nextA = nodes[(i + 1) % n];
+        int prevB = nodes[(j - 1 + n) % n];
+        int nextB = nodes[(j + 1) % n];
+
+        if (j == i + 1) {
+            return getDistance(prevA, b) + getDistance(a, nextB)
+                    - getDistance(prevA, a) - getDistance(b, nextB);
         }
-        result += getDistance(path.getNode(lastIndex), path.getNode(0));
-        path.setCost(result);
+        if (i == 0 && j == n - 1) {
+            return getDistance(prevB, a) + getDistance(b, nextA)
+                    - getDistance(prevB, b) - getDistance(a, nextA);
+        }
+        return getDistance(prevA, b) + getDistance(b, nextA) + getDistance(prevB, a) + getDistance(a, nextB)
+                - getDistance(prevA, a) - getDistance(a, nextA) - getDistance(prevB, b) - getDistance(b, nextB);
     }
 
-    public int getShortestRoute(int node, List<Integer> usedNodes) {
+    /**
+     * Cost change of reversing the segment between positions i < j, assumes a symmetric instance.
+     */
+    default double getReverseDelta(int[] nodes, int i, int j) {
+        int n = nodes.length;
+        if (i == 0 && j == n - 1) {
+            return 0;
+        }
+        int prev = nodes[(i - 1 + n) % n];
+        int next = nodes[(j + 1) % n];
+        return getDistance(prev, nodes[j]) + getDistance(nodes[i], next)
+                - getDistance(prev, nodes[i]) - getDistance(nodes[j], next);
+    }
+
+    /**
+     * Returns the nearest unvisited node, or -1 when every other node is visited.
+     */
+    default int getShortestRoute(int node, boolean[] visited) {
         double min = Double.MAX_VALUE;
         int bestNode = -1;
         double curr;
         for (int i = 0; i < this.size(); i++) {
-            if (usedNodes.contains(i) || i == node) {
+            if (visited[i] || i == node) {
                 continue;
             }
-            curr = this.distanceMatrix[node][i];
+            curr = getDistance(node, i);
             if (curr < min) {
                 min = curr;
                 bestNode = i;
@@ -36,4 +97,22 @@ public record DistanceMatrix(double[][] distanceMatrix, int size) {
         }
         return bestNode;
     }
+
+    /**
+     * Same as {@link #getShortestRoute(int, boolean[])} but consults the candidate list first, the full search only
+     * runs once all candidates of the node are visited.
+     */
+    default int getShortestRoute(int node, boolean[] visited, NeighbourLists candidates) {
+        for (int i = 0; i < candidates.k(); i++) {
+            int candidate = candidates.get(node, i);
+            if (!visited[candidate]) {
+                return candidate;
+            }
+        }
+        return getShortestRoute(node, visited);
+    }
+
+    default NeighbourLists getNeighbourLists(int k) {
+        return NeighbourLists.build(this, k);
+    }
 }
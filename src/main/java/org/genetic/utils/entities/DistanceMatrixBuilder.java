@@ -0,0 +1,88 @@
+package org.genetic.utils.entities;
+
+/**
+ * Collects symmetric distances and chooses the storage backend: a flat double matrix for small instances, otherwise
+ * a triangular store quantized to short or int as long as all distances are integral.
+ */
+public class DistanceMatrixBuilder {
+    public static final int FLAT_SIZE_LIMIT = 2048;
+
+    private final int size;
+    private double[] flat;
+    private int[] integral;
+    private double[] triangle;
+    private double max;
+
+    public DistanceMatrixBuilder(int size) {
+        this.size = size;
+        if (size <= FLAT_SIZE_LIMIT) {
+            this.flat = new double[size * size];
+        } else {
+            this.integral = new int[TriangularIndex.length(size)];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void set(int x, int y, double value) {
+        if (x == y) {
+            return;
+        }
+        if (flat != null) {
+            flat[x * size + y] = value;
+            flat[y * size + x] = value;
+            return;
+        }
+        max = Math.max(max, value);
+        int index = TriangularIndex.of(x, y, size);
+        if (integral != null) {
+            if (value == Math.rint(value) && value <= Integer.MAX_VALUE && value >= 0) {
+                integral[index] = (int) value;
+                return;
+            }
+            widen();
+        }
+        triangle[index] = value;
+    }
+
+    /**
+     * Distance set so far between x and y, 0 when none was set.
+     */
+    public double get(int x, int y) {
+        if (x == y) {
+            return 0;
+        }
+        if (flat != null) {
+            return flat[x * size + y];
+        }
+        int index = TriangularIndex.of(x, y, size);
+        return integral != null ? integral[index] : triangle[index];
+    }
+
+    public DistanceMatrix build() {
+        if (flat != null) {
+            return new FlatDistanceMatrix(flat, size);
+        }
+        if (triangle != null) {
+            return new TriangularDistanceMatrix(triangle, size);
+        }
+        if (max <= ShortDistanceMatrix.MAX_DISTANCE) {
+            var narrow = new short[integral.length];
+            for (int i = 0; i < integral.length; i++) {
+                narrow[i] = (short) integral[i];
+            }
+            return new ShortDistanceMatrix(narrow, size);
+        }
+        return new IntDistanceMatrix(integral, size);
+    }
+
+    private void widen() {
+        triangle = new double[integral.length];
+        for (int i = 0; i < integral.length; i++) {
+            triangle[i] = integral[i];
+        }
+        integral = null;
+    }
+}
@@ -0,0 +1,22 @@
+package org.genetic.utils.entities;
+
+/**
+ * Full n x n matrix in a single row-major array, the fastest backend for instances that fit in memory.
+ */
+public record FlatDistanceMatrix(double[] distances, int size) implements DistanceMatrix {
+    @Override
+    public double getDistance(int x, int y) {
+        return this.distances[x * size + y];
+    }
+
+    @Override
+    public double getPathCost(int[] nodes) {
+        int lastIndex = size - 1;
+        double result = this.distances[nodes[lastIndex] * size + nodes[0]];
+
+        for (int i = 0; i < lastIndex; i++) {
+            result += this.distances[nodes[i] * size + nodes[i + 1]];
+        }
+        return result;
+    }
+}
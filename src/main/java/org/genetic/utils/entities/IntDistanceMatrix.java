@@ -0,0 +1,29 @@
+package org.genetic.utils.entities;
+
+/**
+ * Upper triangle quantized to int, exact for the integral distances produced by TSPLIB formats.
+ */
+public record IntDistanceMatrix(int[] distances, int size) implements DistanceMatrix {
+    @Override
+    public double getDistance(int x, int y) {
+        return distance(x, y);
+    }
+
+    /**
+     * Integral distances are summed exactly in a long, converting once at the end.
+     */
+    @Override
+    public double getPathCost(int[] nodes) {
+        int lastIndex = size - 1;
+        long result = distance(nodes[lastIndex], nodes[0]);
+
+        for (int i = 0; i < lastIndex; i++) {
+            result += distance(nodes[i], nodes[i + 1]);
+        }
+        return result;
+    }
+
+    private int distance(int x, int y) {
+        return x == y ? 0 : this.distances[TriangularIndex.of(x, y, size)];
+    }
+}
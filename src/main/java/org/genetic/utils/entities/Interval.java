@@ -1,4 +1,7 @@
 package org.genetic.utils.entities;
 
-public record Interval<T>(T min, T max) {
+/**
+ * Pair of positions min < max, primitive so that a short-lived interval can be scalar replaced by the JIT.
+ */
+public record Interval(int min, int max) {
 }
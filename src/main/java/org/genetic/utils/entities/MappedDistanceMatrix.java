@@ -0,0 +1,63 @@
+package org.genetic.utils.entities;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Upper triangle of the matrix read straight from a memory-mapped cache file, stored as unsigned short, int or double
+ * depending on elementBytes. The pages are shared through the OS page cache by every process mapping the same file.
+ */
+public class MappedDistanceMatrix implements DistanceMatrix {
+    private final int size;
+    private final ShortBuffer shorts;
+    private final IntBuffer ints;
+    private final DoubleBuffer doubles;
+
+    public MappedDistanceMatrix(ByteBuffer data, int size, int elementBytes) {
+        this.size = size;
+        data = data.order(ByteOrder.LITTLE_ENDIAN);
+        this.shorts = elementBytes == Short.BYTES ? data.asShortBuffer() : null;
+        this.ints = elementBytes == Integer.BYTES ? data.asIntBuffer() : null;
+        this.doubles = elementBytes == Double.BYTES ? data.asDoubleBuffer() : null;
+        if (shorts == null && ints == null && doubles == null) {
+            throw new IllegalArgumentException("Unsupported element size: " + elementBytes);
+        }
+    }
+
+    public static int getElementBytes(DistanceMatrix matrix) {
+        if (matrix instanceof ShortDistanceMatrix) {
+            return Short.BYTES;
+        }
+        if (matrix instanceof IntDistanceMatrix) {
+            return Integer.BYTES;
+        }
+        return Double.BYTES;
+    }
+
+    public static long getDataLength(int size, int elementBytes) {
+        return (long) size * (size - 1) / 2 * elementBytes;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double getDistance(int x, int y) {
+        if (x == y) {
+            return 0.0;
+        }
+        int index = TriangularIndex.of(x, y, size);
+        if (shorts != null) {
+            return shorts.get(index) & ShortDistanceMatrix.MAX_DISTANCE;
+        }
+        if (ints != null) {
+            return ints.get(index);
+        }
+        return doubles.get(index);
+    }
+}
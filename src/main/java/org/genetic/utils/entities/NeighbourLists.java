@@ -0,0 +1,44 @@
+package org.genetic.utils.entities;
+
+/**
+ * The k nearest other nodes of every node, sorted by ascending distance and stored row by row in a single array.
+ */
+public record NeighbourLists(int[] neighbours, int k) {
+    public static final int DEFAULT_SIZE = 10;
+
+    public int get(int node, int index) {
+        return this.neighbours[node * k + index];
+    }
+
+    /**
+     * Builds the lists by scanning the full matrix, O(n^2 k) in the worst case.
+     */
+    public static NeighbourLists build(DistanceMatrix graph, int k) {
+        int size = graph.size();
+        k = Math.max(0, Math.min(k, size - 1));
+        var neighbours = new int[size * k];
+        var distances = new double[k];
+        for (int node = 0; node < size; node++) {
+            int found = 0;
+            int offset = node * k;
+            for (int other = 0; other < size; other++) {
+                if (other == node) {
+                    continue;
+                }
+                var distance = graph.getDistance(node, other);
+                if (found == k && distance >= distances[k - 1]) {
+                    continue;
+                }
+                int position = found < k ? found++ : k - 1;
+                while (position > 0 && distances[position - 1] > distance) {
+                    distances[position] = distances[position - 1];
+                    neighbours[offset + position] = neighbours[offset + position - 1];
+                    position--;
+                }
+                distances[position] = distance;
+                neighbours[offset + position] = other;
+            }
+        }
+        return new NeighbourLists(neighbours, k);
+    }
+}
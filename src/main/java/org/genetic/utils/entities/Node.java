@@ -14,6 +14,21 @@ public record Node(double x, double y) {
                 var q3 = Math.cos(this.getLatitude() + otherNode.getLatitude());
                 return (int) (6378.388 * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
             }
+            case ATT -> {
+                var distX = this.x - otherNode.x;
+                var distY = this.y - otherNode.y;
+                var pseudo = Math.sqrt((distX * distX + distY * distY) / 10.0);
+                var rounded = Math.round(pseudo);
+                return rounded < pseudo ? rounded + 1 : rounded;
+            }
+            case CEIL_2D -> {
+                var distX = this.x - otherNode.x;
+                var distY = this.y - otherNode.y;
+                return Math.ceil(Math.sqrt(distX * distX + distY * distY));
+            }
+            case MAN_2D -> {
+                return Math.round(Math.abs(this.x - otherNode.x) + Math.abs(this.y - otherNode.y));
+            }
             default -> throw new UnsupportedOperationException("Unsupported format: " + format);
         }
     }
@@ -0,0 +1,14 @@
+package org.genetic.utils.entities;
+
+/**
+ * Upper triangle of the matrix without the diagonal, halves the memory of the flat backend.
+ */
+public record TriangularDistanceMatrix(double[] distances, int size) implements DistanceMatrix {
+    @Override
+    public double getDistance(int x, int y) {
+        if (x == y) {
+            return 0.0;
+        }
+        return this.distances[TriangularIndex.of(x, y, size)];
+    }
+}
@@ -0,0 +1,23 @@
+package org.genetic.utils.entities;
+
+final class TriangularIndex {
+    private TriangularIndex() {
+    }
+
+    static int length(int size) {
+        long length = (long) size * (size - 1) / 2;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Instance of size " + size + " is too large for a triangular matrix");
+        }
+        return (int) length;
+    }
+
+    static int of(int x, int y, int size) {
+        if (x > y) {
+            int tmp = x;
+            x = y;
+            y = tmp;
+        }
+        return (int) ((long) x * size - (long) x * (x + 1) / 2 + (y - x - 1));
+    }
+}
@@ -0,0 +1,12 @@
+package org.genetic.utils.entities;
+
+import java.util.List;
+
+/**
+ * Parsed TSPLIB file, coordinate formats fill nodes while EXPLICIT instances carry their weights directly.
+ */
+public record TsplibInstance(String name, DistFormat format, List<Node> nodes, DistanceMatrix weights) {
+    public int size() {
+        return weights != null ? weights.size() : nodes.size();
+    }
+}
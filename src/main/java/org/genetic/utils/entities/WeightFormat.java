@@ -0,0 +1,24 @@
+package org.genetic.utils.entities;
+
+/**
+ * EDGE_WEIGHT_FORMAT layouts of EXPLICIT instances. Column-wise layouts of a symmetric matrix read the same as the
+ * opposite row-wise triangle, so they share an entry.
+ */
+public enum WeightFormat {
+    FULL_MATRIX,
+    UPPER_ROW,
+    LOWER_ROW,
+    UPPER_DIAG_ROW,
+    LOWER_DIAG_ROW;
+
+    public static WeightFormat parse(String format) {
+        return switch (format) {
+            case "FULL_MATRIX" -> FULL_MATRIX;
+            case "UPPER_ROW", "LOWER_COL" -> UPPER_ROW;
+            case "LOWER_ROW", "UPPER_COL" -> LOWER_ROW;
+            case "UPPER_DIAG_ROW", "LOWER_DIAG_COL" -> UPPER_DIAG_ROW;
+            case "LOWER_DIAG_ROW", "UPPER_DIAG_COL" -> LOWER_DIAG_ROW;
+            default -> throw new UnsupportedOperationException("Unsupported EDGE_WEIGHT_FORMAT: " + format);
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.CrossoverType;
+import org.genetic.alg.entities.InitializationType;
+import org.genetic.utils.TspLoader;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Steady state generations run on the population arena and per-thread scratch buffers, so a sequential run should
+ * allocate next to nothing per generation. Fixed costs are cancelled by comparing a short and a long run.
+ */
+class AllocationTest {
+    private static final long BYTES_PER_GENERATION = 2048;
+    private static final int SHORT_RUN = 50;
+    private static final int LONG_RUN = 250;
+
+    @Test
+    void generationsAllocateLittleOnGr666() {
+        var threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean allocation
+                && allocation.isThreadAllocatedMemorySupported());
+        var allocation = (com.sun.management.ThreadMXBean) threads;
+        allocation.setThreadAllocatedMemoryEnabled(true);
+        var graph = TspLoader.load("src/main/resources/data/gr666.tsp").orElseThrow();
+
+        for (var crossoverType : new CrossoverType[]{CrossoverType.OX, CrossoverType.PMX}) {
+            var builder = new GeneticAlgorithm.Builder()
+                    .setInitializationType(InitializationType.Random)
+                    .setCrossoverType(crossoverType)
+                    .setPopulationSize(200)
+                    .setParallelism(1);
+            builder.setGenerationLimit(LONG_RUN).build().execute(graph, null);
+            var threadId = Thread.currentThread().getId();
+            long start = allocation.getThreadAllocatedBytes(threadId);
+            builder.setGenerationLimit(SHORT_RUN).build().execute(graph, null);
+            long middle = allocation.getThreadAllocatedBytes(threadId);
+            builder.setGenerationLimit(LONG_RUN).build().execute(graph, null);
+            long end = allocation.getThreadAllocatedBytes(threadId);
+            var perGeneration = ((end - middle) - (middle - start)) / (double) (LONG_RUN - SHORT_RUN);
+            assertTrue(perGeneration < BYTES_PER_GENERATION,
+                    crossoverType + " allocated " + (long) perGeneration + " bytes per generation");
+        }
+    }
+}
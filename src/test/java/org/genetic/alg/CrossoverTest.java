@@ -0,0 +1,168 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.CrossoverType;
+import org.genetic.alg.entities.Path;
+import org.genetic.utils.RandomGenerator;
+import org.genetic.utils.TspLoader;
+import org.genetic.utils.entities.DistanceMatrix;
+import org.genetic.utils.entities.NeighbourLists;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the operators writing into preallocated children with textbook versions that draw the same cut points.
+ */
+class CrossoverTest {
+    private static final int ROUNDS = 200;
+
+    private static DistanceMatrix graph;
+
+    @BeforeAll
+    static void load() {
+        graph = TspLoader.load("src/main/resources/data/kroA100.tsp").orElseThrow();
+    }
+
+    @Test
+    void orderCrossoverMatchesReference() {
+        for (int round = 0; round < ROUNDS; round++) {
+            RandomGenerator.setSeed(round);
+            var parent1 = randomPath();
+            var parent2 = randomPath();
+            var interval = RandomGenerator.getRandomInterval(graph.size());
+            RandomGenerator.setSeed(round);
+            randomPath();
+            randomPath();
+            var children = GeneticOperatorHelper.crossover(CrossoverType.OX, parent1, parent2, graph);
+
+            assertEquals(1, children.size());
+            var expected = referenceOx(parent1.getNodes(), parent2.getNodes(), interval.min(), interval.max());
+            assertArrayEquals(expected, children.get(0).getNodes());
+            assertEquals(graph.getPathCost(expected), children.get(0).getCost(), 1e-6);
+        }
+    }
+
+    @Test
+    void partiallyMappedCrossoverMatchesReference() {
+        for (int round = 0; round < ROUNDS; round++) {
+            RandomGenerator.setSeed(round);
+            var parent1 = randomPath();
+            var parent2 = randomPath();
+            var interval = RandomGenerator.getRandomInterval(graph.size());
+            RandomGenerator.setSeed(round);
+            randomPath();
+            randomPath();
+            var children = GeneticOperatorHelper.crossover(CrossoverType.PMX, parent1, parent2, graph);
+
+            assertEquals(2, children.size());
+            var nodes1 = parent1.getNodes();
+            var nodes2 = parent2.getNodes();
+            assertArrayEquals(referencePmx(nodes1, nodes2, interval.min(), interval.max()), children.get(0).getNodes());
+            assertArrayEquals(referencePmx(nodes2, nodes1, interval.min(), interval.max()), children.get(1).getNodes());
+        }
+    }
+
+    @Test
+    void crossoversProducePermutations() {
+        RandomGenerator.setSeed(7);
+        for (var crossoverType : CrossoverType.values()) {
+            for (int round = 0; round < 20; round++) {
+                var children = GeneticOperatorHelper.crossover(crossoverType, randomPath(), randomPath(), graph);
+                for (var child : children) {
+                    var sorted = child.getNodes().clone();
+                    Arrays.sort(sorted);
+                    for (int i = 0; i < sorted.length; i++) {
+                        assertEquals(i, sorted[i], crossoverType + " child is not a permutation");
+                    }
+                    assertEquals(graph.getPathCost(child.getNodes()), child.getCost(), 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    void slotCrossoverLeavesParentsUntouched() {
+        RandomGenerator.setSeed(11);
+        var parent1 = randomPath();
+        var parent2 = randomPath();
+        var copy1 = parent1.getNodes().clone();
+        var copy2 = parent2.getNodes().clone();
+        var child1 = new Path(new int[graph.size()], 0);
+        var child2 = new Path(new int[graph.size()], 0);
+        var candidates = graph.getNeighbourLists(NeighbourLists.DEFAULT_SIZE);
+        for (var crossoverType : CrossoverType.values()) {
+            GeneticOperatorHelper.crossover(crossoverType, parent1, parent2, graph, candidates, child1, child2);
+            assertArrayEquals(copy1, parent1.getNodes());
+            assertArrayEquals(copy2, parent2.getNodes());
+        }
+    }
+
+    /**
+     * Keeps the segment of the first parent in place and fills the other positions from the left with the remaining
+     * nodes in the order of the second parent.
+     */
+    private static int[] referenceOx(int[] parent1, int[] parent2, int first, int last) {
+        List<Integer> segment = new ArrayList<>();
+        for (int i = first; i <= last; i++) {
+            segment.add(parent1[i]);
+        }
+        List<Integer> rest = new ArrayList<>();
+        for (var node : parent2) {
+            if (!segment.contains(node)) {
+                rest.add(node);
+            }
+        }
+        var child = new int[parent1.length];
+        int next = 0;
+        for (int i = 0; i < child.length; i++) {
+            child[i] = i >= first && i <= last ? parent1[i] : rest.get(next++);
+        }
+        return child;
+    }
+
+    /**
+     * Takes the segment of the second parent and every other position from the first, following the mapping of the
+     * segment while the node of the first parent is already used.
+     */
+    private static int[] referencePmx(int[] parent1, int[] parent2, int first, int last) {
+        var child = new int[parent1.length];
+        for (int i = 0; i < child.length; i++) {
+            if (i >= first && i <= last) {
+                child[i] = parent2[i];
+                continue;
+            }
+            var node = parent1[i];
+            int position = indexOf(parent2, node);
+            while (position >= first && position <= last) {
+                node = parent1[position];
+                position = indexOf(parent2, node);
+            }
+            child[i] = node;
+        }
+        return child;
+    }
+
+    private static int indexOf(int[] nodes, int node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Path randomPath() {
+        var nodes = new int[graph.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = i;
+        }
+        RandomGenerator.shuffle(nodes);
+        return new Path(nodes, graph.getPathCost(nodes));
+    }
+}
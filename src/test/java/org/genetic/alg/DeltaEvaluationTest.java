@@ -0,0 +1,62 @@
+package org.genetic.alg;
+
+import org.genetic.alg.entities.MutationType;
+import org.genetic.alg.entities.Path;
+import org.genetic.utils.RandomGenerator;
+import org.genetic.utils.TspLoader;
+import org.genetic.utils.entities.DistanceMatrix;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaEvaluationTest {
+    private static DistanceMatrix graph;
+
+    @BeforeAll
+    static void load() {
+        graph = TspLoader.load("src/main/resources/data/kroA100.tsp").orElseThrow();
+    }
+
+    @Test
+    void swapMutationMatchesFullEvaluation() {
+        checkMutation(MutationType.Swap);
+    }
+
+    @Test
+    void inverseMutationMatchesFullEvaluation() {
+        checkMutation(MutationType.Inverse);
+    }
+
+    @Test
+    void localSearchMatchesFullEvaluation() {
+        RandomGenerator.setSeed(3);
+        var localSearch = new LocalSearch(graph, 8, Integer.MAX_VALUE);
+        for (int round = 0; round < 20; round++) {
+            var path = randomPath();
+            var before = path.getCost();
+            localSearch.improve(path);
+            assertEquals(graph.getPathCost(path.getNodes()), path.getCost(), 1e-6);
+            assertTrue(path.getCost() <= before);
+        }
+    }
+
+    private static void checkMutation(MutationType mutationType) {
+        RandomGenerator.setSeed(1);
+        var path = randomPath();
+        for (int round = 0; round < 10_000; round++) {
+            GeneticOperatorHelper.mutate(mutationType, path, graph);
+            assertEquals(graph.getPathCost(path.getNodes()), path.getCost(), 1e-6);
+        }
+    }
+
+    private static Path randomPath() {
+        var nodes = new int[graph.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = i;
+        }
+        RandomGenerator.shuffle(nodes);
+        return new Path(nodes, graph.getPathCost(nodes));
+    }
+}
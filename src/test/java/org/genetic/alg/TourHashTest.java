@@ -0,0 +1,62 @@
+package org.genetic.alg;
+
+import org.genetic.utils.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TourHashTest {
+    private static final int SIZE = 40;
+
+    @Test
+    void hashIgnoresStartAndDirection() {
+        RandomGenerator.setSeed(8);
+        var hasher = new TourHash(SIZE);
+        var nodes = randomNodes();
+        var hash = hasher.hash(nodes);
+        var rotated = new int[SIZE];
+        var reversed = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            rotated[i] = nodes[(i + 13) % SIZE];
+            reversed[i] = nodes[SIZE - 1 - i];
+        }
+        assertEquals(hash, hasher.hash(rotated));
+        assertEquals(hash, hasher.hash(reversed));
+    }
+
+    @Test
+    void incrementalUpdatesMatchFullHash() {
+        RandomGenerator.setSeed(9);
+        var hasher = new TourHash(SIZE);
+        var nodes = randomNodes();
+        var hash = hasher.hash(nodes);
+        for (int round = 0; round < 5_000; round++) {
+            var interval = RandomGenerator.getRandomInterval(SIZE);
+            int i = interval.min();
+            int j = interval.max();
+            if (round % 2 == 0) {
+                hash = hasher.swap(hash, nodes, i, j);
+                int node = nodes[i];
+                nodes[i] = nodes[j];
+                nodes[j] = node;
+            } else {
+                hash = hasher.reverse(hash, nodes, i, j);
+                for (; i < j; i++, j--) {
+                    int node = nodes[i];
+                    nodes[i] = nodes[j];
+                    nodes[j] = node;
+                }
+            }
+            assertEquals(hasher.hash(nodes), hash);
+        }
+    }
+
+    private static int[] randomNodes() {
+        var nodes = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            nodes[i] = i;
+        }
+        RandomGenerator.shuffle(nodes);
+        return nodes;
+    }
+}
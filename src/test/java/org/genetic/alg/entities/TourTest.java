@@ -0,0 +1,102 @@
+package org.genetic.alg.entities;
+
+import org.genetic.utils.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TourTest {
+
+    @Test
+    void twoLevelFlipsMatchArrayFlips() {
+        RandomGenerator.setSeed(5);
+        for (var size : new int[]{8, 37, 500}) {
+            var nodes = new int[size];
+            for (int i = 0; i < size; i++) {
+                nodes[i] = i;
+            }
+            RandomGenerator.shuffle(nodes);
+            Tour array = new ArrayTour(nodes.clone());
+            Tour twoLevel = new TwoLevelTour(nodes.clone());
+            for (int round = 0; round < 5_000; round++) {
+                int a = RandomGenerator.getRandomInt(size);
+                int c = RandomGenerator.getRandomInt(size);
+                int b = array.next(a);
+                int d = array.next(c);
+                if (a == c || b == c || d == a) {
+                    continue;
+                }
+                array.flip(a, b, c, d);
+                // The same exchange read in the orientation of the other tour
+                if (twoLevel.next(a) == b) {
+                    twoLevel.flip(a, b, c, d);
+                } else {
+                    twoLevel.flip(d, c, b, a);
+                }
+                assertSameCycle(array, twoLevel);
+            }
+        }
+    }
+
+    @Test
+    void loadAndCopyRoundTrip() {
+        RandomGenerator.setSeed(7);
+        var nodes = new int[50];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = i;
+        }
+        for (Tour tour : new Tour[]{new ArrayTour(nodes), new TwoLevelTour(nodes)}) {
+            RandomGenerator.shuffle(nodes);
+            tour.load(nodes);
+            var copy = new int[nodes.length];
+            tour.copyNodes(copy);
+            int first = 0;
+            while (nodes[first] != 0) {
+                first++;
+            }
+            for (int i = 0; i < nodes.length; i++) {
+                assertEquals(nodes[(first + i) % nodes.length], copy[i]);
+            }
+            assertArrayEquals(copy, tour.toNodes());
+        }
+    }
+
+    @Test
+    void betweenMatchesWalk() {
+        RandomGenerator.setSeed(6);
+        var nodes = new int[60];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = i;
+        }
+        RandomGenerator.shuffle(nodes);
+        Tour tour = new TwoLevelTour(nodes);
+        for (int round = 0; round < 2_000; round++) {
+            int a = RandomGenerator.getRandomInt(nodes.length);
+            int b = RandomGenerator.getRandomInt(nodes.length);
+            int c = RandomGenerator.getRandomInt(nodes.length);
+            boolean met = false;
+            for (int node = a; ; node = tour.next(node)) {
+                met |= node == b;
+                if (node == c) {
+                    break;
+                }
+            }
+            assertEquals(met, tour.between(a, b, c));
+        }
+    }
+
+    /**
+     * Orientation may differ after flips, so every node must have the same two neighbours in both tours.
+     */
+    private static void assertSameCycle(Tour expected, Tour actual) {
+        for (int node = 0; node < expected.size(); node++) {
+            int next = expected.next(node);
+            int prev = expected.prev(node);
+            var forward = actual.next(node) == next && actual.prev(node) == prev;
+            var backward = actual.next(node) == prev && actual.prev(node) == next;
+            assertTrue(forward || backward, "neighbours of node " + node + " differ");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.genetic.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TsplibParserTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsSymmetricFullMatrix() throws IOException {
+        var instance = TsplibParser.parse(write("TSP", "0 1 2\n1 0 3\n2 3 0\n"));
+        assertEquals(3, instance.size());
+        assertEquals(3, instance.weights().getDistance(1, 2));
+        assertEquals(3, instance.weights().getDistance(2, 1));
+    }
+
+    @Test
+    void rejectsAsymmetricFullMatrix() {
+        assertThrows(UnsupportedOperationException.class, () -> TsplibParser.parse(write("TSP", "0 1 2\n1 0 3\n2 4 0\n")));
+    }
+
+    @Test
+    void rejectsOtherProblemTypes() {
+        for (var type : new String[]{"ATSP", "HCP", "SOP"}) {
+            assertThrows(UnsupportedOperationException.class, () -> TsplibParser.parse(write(type, "0 1 2\n1 0 3\n2 3 0\n")));
+        }
+    }
+
+    private String write(String type, String weights) throws IOException {
+        var file = directory.resolve(type + ".tsp");
+        Files.writeString(file, "NAME : test\nTYPE : " + type + "\nDIMENSION : 3\nEDGE_WEIGHT_TYPE : EXPLICIT\n"
+                + "EDGE_WEIGHT_FORMAT : FULL_MATRIX\nEDGE_WEIGHT_SECTION\n" + weights + "EOF\n");
+        return file.toString();
+    }
+}